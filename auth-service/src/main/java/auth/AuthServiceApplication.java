@@ -5,11 +5,14 @@ import auth.accounts.AccountRepository;
 import auth.clients.Client;
 import auth.clients.ClientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.AuthorizationServerConfigurerAdapter;
@@ -17,11 +20,13 @@ import org.springframework.security.oauth2.config.annotation.web.configuration.E
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
 import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.token.TokenStore;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.security.Principal;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 
@@ -45,11 +50,15 @@ class AuthorizationServerConfiguration extends AuthorizationServerConfigurerAdap
 
     private final ClientDetailsService clientDetailsService;
 
+    private final TokenStore tokenStore;
+
     @Autowired
     public AuthorizationServerConfiguration(AuthenticationManager authenticationManager,
-                               ClientDetailsService clientDetailsService) {
+                               ClientDetailsService clientDetailsService,
+                               TokenStore tokenStore) {
         this.authenticationManager = authenticationManager;
         this.clientDetailsService = clientDetailsService;
+        this.tokenStore = tokenStore;
     }
 
     @Override
@@ -59,34 +68,44 @@ class AuthorizationServerConfiguration extends AuthorizationServerConfigurerAdap
 
     @Override
     public void configure(AuthorizationServerEndpointsConfigurer endpoints) throws Exception {
-        endpoints.authenticationManager(authenticationManager);
+        endpoints.authenticationManager(authenticationManager).tokenStore(tokenStore);
     }
 }
 
-
+// before auth.imports, which skips whatever this already created
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
 class DataCommandLineRunner implements CommandLineRunner {
 
     private final AccountRepository accountRepository;
 
     private final ClientRepository clientRepository;
 
+    private final String introspectionAuthority;
+
     @Autowired
-    public DataCommandLineRunner(AccountRepository accountRepository, ClientRepository clientRepository) {
+    public DataCommandLineRunner(AccountRepository accountRepository, ClientRepository clientRepository,
+                                 @Value("${auth.introspection.authority:ROLE_TRUSTED_CLIENT}") String introspectionAuthority) {
         this.accountRepository = accountRepository;
         this.clientRepository = clientRepository;
+        this.introspectionAuthority = introspectionAuthority;
     }
 
     @Override
     public void run(String... args) throws Exception {
 
-        Stream.of("dsyer,cloud", "pwebb,boot", "mminella,batch", "rwinch,security", "jlong,spring")
+        accountRepository.save(Stream.of("dsyer,cloud", "pwebb,boot", "mminella,batch", "rwinch,security", "jlong,spring")
                 .map(s -> s.split(","))
-                .forEach(tuple -> accountRepository.save(new Account(tuple[0], tuple[1], true)));
+                .map(tuple -> new Account(tuple[0], tuple[1], true))
+                .collect(Collectors.toList()));
 
-        Stream.of("html5,secret", "android,secret")
+        clientRepository.save(Stream.of("html5,secret", "android,secret")
                 .map(x -> x.split(","))
-                .forEach(x -> clientRepository.save(new Client(x[0], x[1])));
+                .map(x -> new Client(x[0], x[1]))
+                .collect(Collectors.toList()));
+
+        // may call /introspect, the load harness uses it by default
+        clientRepository.save(new Client("gateway", "secret", "ROLE_USER", this.introspectionAuthority));
     }
 }
 
@@ -1,17 +1,20 @@
 package auth.accounts;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.Id;
+import javax.persistence.*;
 
 @Entity
+@Table(indexes = @Index(name = "account_username_idx", columnList = "username", unique = true))
 public class Account {
 
+    // identity columns let the bulk import insert rows without a round trip for ids
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    private String username, password; // <1>
+    @Column(nullable = false)
+    private String username;
+
+    private String password; // <1>
 
     private boolean active; // <2>
 
@@ -1,18 +1,18 @@
 package auth.clients;
 
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.Id;
+import javax.persistence.*;
 import java.util.Arrays;
 import java.util.stream.Collectors;
 
 @Entity
+@Table(indexes = @Index(name = "client_client_id_idx", columnList = "clientId", unique = true))
 public class Client {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(nullable = false)
     private String clientId;
     private String secret;
     private String scopes = from("openid");
@@ -45,6 +45,11 @@ public class Client {
         this.secret = clientSecret;
     }
 
+    public Client(String clientId, String clientSecret, String... authorities) {
+        this(clientId, clientSecret);
+        this.authorities = from(authorities);
+    }
+
     Client() {
     }
 
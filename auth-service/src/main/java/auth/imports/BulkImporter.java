@@ -0,0 +1,158 @@
+package auth.imports;
+
+import auth.clients.Client;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Loads accounts and clients with batched JDBC inserts. Only one batch of rows is held
+ * in memory at a time. Each file is imported in one transaction, so a bad record leaves
+ * nothing of its file behind, and usernames or client ids that already exist are skipped,
+ * so a file can be imported again or overlap the sample data.
+ */
+public class BulkImporter {
+
+    private static final String EXISTING_ACCOUNTS = "select username from account where username in (:keys)";
+
+    private static final String EXISTING_CLIENTS = "select client_id from client where client_id in (:keys)";
+
+    private static final String INSERT_ACCOUNT =
+            "insert into account (username, password, active) values (?, ?, ?)";
+
+    private static final String INSERT_CLIENT =
+            "insert into client (client_id, secret, scopes, authorized_grant_types, authorities, auto_approve_scopes) "
+                    + "values (?, ?, ?, ?, ?, ?)";
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RecordReader recordReader;
+
+    private final int batchSize;
+
+    private final int progressInterval;
+
+    BulkImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                 RecordReader recordReader, int batchSize, int progressInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordReader = recordReader;
+        this.batchSize = batchSize;
+        this.progressInterval = progressInterval;
+    }
+
+    public long importAccounts(Path file) throws IOException {
+        return this.importFile("accounts", file, EXISTING_ACCOUNTS, INSERT_ACCOUNT, record -> new Object[]{
+                required(record, "username"),
+                required(record, "password"),
+                record.get("active") == null || Boolean.parseBoolean(record.get("active"))
+        });
+    }
+
+    public long importClients(Path file) throws IOException {
+        return this.importFile("clients", file, EXISTING_CLIENTS, INSERT_CLIENT, record -> {
+            Client defaults = new Client(required(record, "clientId"), required(record, "secret"));
+            return new Object[]{
+                    defaults.getClientId(),
+                    defaults.getSecret(),
+                    record.getOrDefault("scopes", defaults.getScopes()),
+                    record.getOrDefault("authorizedGrantTypes", defaults.getAuthorizedGrantTypes()),
+                    record.getOrDefault("authorities", defaults.getAuthorities()),
+                    record.getOrDefault("autoApproveScopes", defaults.getAutoApproveScopes())
+            };
+        });
+    }
+
+    private long importFile(String kind, Path file, String existing, String insert,
+                            Function<Map<String, String>, Object[]> row) throws IOException {
+        try {
+            return this.transactionTemplate.execute(status -> {
+                try {
+                    return this.importRecords(kind, file, existing, insert, row);
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // the first column of every row is its unique key
+    private long importRecords(String kind, Path file, String existing, String insert,
+                               Function<Map<String, String>, Object[]> row) throws IOException {
+        long start = System.currentTimeMillis();
+        List<Object[]> batch = new ArrayList<>(this.batchSize);
+        long[] counts = new long[2];
+        this.recordReader.read(file, record -> {
+            batch.add(row.apply(record));
+            if (batch.size() == this.batchSize) {
+                this.flush(existing, insert, batch, counts);
+                if ((counts[0] + counts[1]) % this.progressInterval < this.batchSize) {
+                    this.progress(kind, counts, start);
+                }
+            }
+        });
+        this.flush(existing, insert, batch, counts);
+        this.progress(kind, counts, start);
+        return counts[0];
+    }
+
+    private void flush(String existing, String insert, List<Object[]> batch, long[] counts) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object> keys = new ArrayList<>(batch.size());
+        for (Object[] values : batch) {
+            keys.add(values[0]);
+        }
+        Set<Object> seen = new HashSet<>(this.namedParameterJdbcTemplate.queryForList(existing,
+                Collections.singletonMap("keys", keys), String.class));
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Object[] values : batch) {
+            // already in the table, or earlier in this batch
+            if (seen.add(values[0])) {
+                rows.add(values);
+            }
+        }
+        if (!rows.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(insert, rows);
+        }
+        counts[0] += rows.size();
+        counts[1] += batch.size() - rows.size();
+        batch.clear();
+    }
+
+    private void progress(String kind, long[] counts, long start) {
+        long millis = Math.max(1, System.currentTimeMillis() - start);
+        long read = counts[0] + counts[1];
+        log.info(String.format("imported %d %s in %d ms (%d/s), skipped %d that already existed",
+                counts[0], kind, millis, read * 1000 / millis, counts[1]));
+    }
+
+    private static String required(Map<String, String> record, String field) {
+        String value = record.get(field);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("record " + record + " has no " + field);
+        }
+        return value;
+    }
+}
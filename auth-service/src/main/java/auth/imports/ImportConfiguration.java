@@ -0,0 +1,44 @@
+package auth.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class ImportConfiguration {
+
+    @Bean
+    @ConfigurationProperties("auth.import")
+    ImportProperties importProperties() {
+        return new ImportProperties();
+    }
+
+    @Bean
+    BulkImporter bulkImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper, ImportProperties properties) {
+        return new BulkImporter(jdbcTemplate, transactionManager, new RecordReader(objectMapper),
+                properties.getBatchSize(), properties.getProgressInterval());
+    }
+
+    // runs after the sample data is in (DataCommandLineRunner is ordered first), accounts before clients
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    CommandLineRunner importCommandLineRunner(BulkImporter bulkImporter, ImportProperties properties) {
+        return args -> {
+            if (properties.getAccounts() != null) {
+                bulkImporter.importAccounts(Paths.get(properties.getAccounts()));
+            }
+            if (properties.getClients() != null) {
+                bulkImporter.importClients(Paths.get(properties.getClients()));
+            }
+        };
+    }
+}
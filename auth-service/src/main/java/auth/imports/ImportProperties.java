@@ -0,0 +1,45 @@
+package auth.imports;
+
+public class ImportProperties {
+
+    // CSV or NDJSON files, either may be left unset
+    private String accounts;
+
+    private String clients;
+
+    private int batchSize = 1000;
+
+    private int progressInterval = 100_000;
+
+    public String getAccounts() {
+        return accounts;
+    }
+
+    public void setAccounts(String accounts) {
+        this.accounts = accounts;
+    }
+
+    public String getClients() {
+        return clients;
+    }
+
+    public void setClients(String clients) {
+        this.clients = clients;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getProgressInterval() {
+        return progressInterval;
+    }
+
+    public void setProgressInterval(int progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+}
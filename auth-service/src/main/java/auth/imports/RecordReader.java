@@ -0,0 +1,110 @@
+package auth.imports;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Streams flat records out of a CSV (with a header row) or NDJSON file one line at a
+ * time, so memory use doesn't depend on the size of the file.
+ */
+class RecordReader {
+
+    private final ObjectMapper objectMapper;
+
+    RecordReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    void read(Path file, Consumer<Map<String, String>> records) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (name.endsWith(".csv")) {
+                this.readCsv(reader, records);
+            }
+            else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                this.readNdjson(reader, records);
+            }
+            else {
+                throw new IllegalArgumentException("can't import " + file + ", expected .csv, .ndjson or .jsonl");
+            }
+        }
+    }
+
+    void readCsv(BufferedReader reader, Consumer<Map<String, String>> records) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = splitCsv(header);
+        Map<String, String> record = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            List<String> values = splitCsv(line);
+            record.clear();
+            for (int i = 0; i < columns.size() && i < values.size(); i++) {
+                record.put(columns.get(i).trim(), values.get(i));
+            }
+            records.accept(record);
+        }
+    }
+
+    void readNdjson(BufferedReader reader, Consumer<Map<String, String>> records) throws IOException {
+        Map<String, String> record = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            JsonNode node = this.objectMapper.readTree(line);
+            record.clear();
+            node.fields().forEachRemaining(field ->
+                    record.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText()));
+            records.accept(record);
+        }
+    }
+
+    // RFC 4180 quoting within a single line, embedded line breaks aren't supported
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                }
+                else if (c == '"') {
+                    quoted = false;
+                }
+                else {
+                    value.append(c);
+                }
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            }
+            else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
@@ -0,0 +1,68 @@
+package auth.tokens;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A lighter {@code /user}: the precomputed view of a token rather than the whole
+ * {@code Principal}, for one token or a batch of them. Callers authenticate with a
+ * bearer token of their own, issued to a client that has {@code auth.introspection.authority},
+ * and pass the tokens in the request body, RFC 7662 style, so they stay out of access logs.
+ */
+@RestController
+@RequestMapping("/introspect")
+class IntrospectionRestController {
+
+    private final IntrospectionTokenStore tokenStore;
+
+    private final int maxBatch;
+
+    private final String authority;
+
+    @Autowired
+    IntrospectionRestController(IntrospectionTokenStore tokenStore,
+                                @Value("${auth.introspection.max-batch:1000}") int maxBatch,
+                                @Value("${auth.introspection.authority:ROLE_TRUSTED_CLIENT}") String authority) {
+        this.tokenStore = tokenStore;
+        this.maxBatch = maxBatch;
+        this.authority = authority;
+    }
+
+    @RequestMapping(method = RequestMethod.POST, consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+    ResponseEntity<Map<String, Object>> introspect(@RequestParam String token, Principal principal) {
+        if (!this.isTrusted(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(this.tokenStore.introspect(token));
+    }
+
+    // token value to view, in the order asked for
+    @RequestMapping(method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<Map<String, Map<String, Object>>> introspect(@RequestBody List<String> tokens, Principal principal) {
+        if (!this.isTrusted(principal)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (tokens.size() > this.maxBatch) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, Map<String, Object>> views = new LinkedHashMap<>();
+        tokens.forEach(token -> views.put(token, this.tokenStore.introspect(token)));
+        return ResponseEntity.ok(views);
+    }
+
+    // the client the caller's token was issued to, not the user, has to be allowed to look at other tokens
+    private boolean isTrusted(Principal principal) {
+        return principal instanceof OAuth2Authentication && ((OAuth2Authentication) principal).getOAuth2Request()
+                .getAuthorities().stream().anyMatch(granted -> this.authority.equals(granted.getAuthority()));
+    }
+}
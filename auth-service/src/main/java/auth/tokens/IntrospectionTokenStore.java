@@ -0,0 +1,70 @@
+package auth.tokens;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.InMemoryTokenStore;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the answer to "what does this token grant?" next to every token it stores,
+ * computed once when the token is issued rather than on every check. Views go when
+ * their token is removed, revoked or flushed as expired.
+ */
+public class IntrospectionTokenStore extends InMemoryTokenStore {
+
+    static final Map<String, Object> INACTIVE = Collections.singletonMap("active", false);
+
+    private final Map<String, View> views = new ConcurrentHashMap<>();
+
+    @Override
+    public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+        super.storeAccessToken(token, authentication);
+        this.views.put(token.getValue(), new View(token, authentication));
+    }
+
+    @Override
+    public void removeAccessToken(String tokenValue) {
+        super.removeAccessToken(tokenValue);
+        this.views.remove(tokenValue);
+    }
+
+    /**
+     * @return the token's view, in the RFC 7662 shape, or {@link #INACTIVE} if it's
+     * unknown or expired
+     */
+    public Map<String, Object> introspect(String tokenValue) {
+        View view = tokenValue == null ? null : this.views.get(tokenValue);
+        if (view == null) {
+            return INACTIVE;
+        }
+        if (view.expiresAt != 0 && view.expiresAt <= System.currentTimeMillis()) {
+            this.removeAccessToken(tokenValue);
+            return INACTIVE;
+        }
+        return view.attributes;
+    }
+
+    private static class View {
+
+        private final long expiresAt;
+
+        private final Map<String, Object> attributes;
+
+        View(OAuth2AccessToken token, OAuth2Authentication authentication) {
+            this.expiresAt = token.getExpiration() == null ? 0 : token.getExpiration().getTime();
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            attributes.put("active", true);
+            attributes.put("username", authentication.isClientOnly() ? null : authentication.getName());
+            attributes.put("client_id", authentication.getOAuth2Request().getClientId());
+            attributes.put("scope", String.join(" ", token.getScope()));
+            attributes.put("authorities", Collections.unmodifiableList(authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority).collect(Collectors.toList())));
+            attributes.put("exp", this.expiresAt == 0 ? null : this.expiresAt / 1000);
+            this.attributes = Collections.unmodifiableMap(attributes);
+        }
+    }
+}
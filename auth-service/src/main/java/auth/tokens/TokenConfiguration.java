@@ -0,0 +1,14 @@
+package auth.tokens;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TokenConfiguration {
+
+    // the same in-memory store the authorization server would have created, handed to it explicitly
+    @Bean
+    IntrospectionTokenStore tokenStore() {
+        return new IntrospectionTokenStore();
+    }
+}
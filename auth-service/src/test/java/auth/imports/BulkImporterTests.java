@@ -0,0 +1,129 @@
+package auth.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class BulkImporterTests {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private BulkImporter importer;
+
+    @Before
+    public void setUp() {
+        this.database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        this.jdbcTemplate = new JdbcTemplate(this.database);
+        this.jdbcTemplate.execute("create table account (id bigint identity primary key, username varchar(255) not null, " +
+                "password varchar(255), active boolean not null)");
+        this.jdbcTemplate.execute("create unique index account_username_idx on account (username)");
+        this.jdbcTemplate.execute("create table client (id bigint identity primary key, client_id varchar(255) not null, " +
+                "secret varchar(255), scopes varchar(255), authorized_grant_types varchar(255), " +
+                "authorities varchar(255), auto_approve_scopes varchar(255))");
+        this.jdbcTemplate.execute("create unique index client_client_id_idx on client (client_id)");
+        this.importer = new BulkImporter(this.jdbcTemplate, new DataSourceTransactionManager(this.database),
+                new RecordReader(new ObjectMapper()), 100, 1000);
+    }
+
+    @After
+    public void tearDown() {
+        this.database.shutdown();
+    }
+
+    @Test
+    public void importsAccountsFromCsvInBatches() throws Exception {
+        Path file = Files.createTempFile("accounts", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("username,password,active\n");
+            for (int i = 0; i < 2_550; i++) {
+                writer.write("user" + i + ",\"pass,\"\"" + i + "\"\"\"," + (i % 2 == 0) + "\n");
+            }
+        }
+        try {
+            assertEquals(2_550, this.importer.importAccounts(file));
+            assertEquals("pass,\"7\"", this.jdbcTemplate.queryForObject(
+                    "select password from account where username = ?", String.class, "user7"));
+            assertEquals(Integer.valueOf(1_275), this.jdbcTemplate.queryForObject(
+                    "select count(*) from account where active", Integer.class));
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void importsClientsFromNdjsonWithDefaults() throws Exception {
+        Path file = Files.createTempFile("clients", ".ndjson");
+        Files.write(file, Arrays.asList(
+                "{\"clientId\":\"html5\",\"secret\":\"secret\"}",
+                "",
+                "{\"clientId\":\"cli\",\"secret\":\"secret\",\"authorizedGrantTypes\":\"password\"}"), StandardCharsets.UTF_8);
+        try {
+            assertEquals(2, this.importer.importClients(file));
+            assertEquals("authorization_code,refresh_token,password", this.jdbcTemplate.queryForObject(
+                    "select authorized_grant_types from client where client_id = ?", String.class, "html5"));
+            assertEquals("password", this.jdbcTemplate.queryForObject(
+                    "select authorized_grant_types from client where client_id = ?", String.class, "cli"));
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void skipsUsernamesThatAlreadyExist() throws Exception {
+        this.jdbcTemplate.update("insert into account (username, password, active) values ('dsyer', 'cloud', true)");
+        Path file = Files.createTempFile("accounts", ".csv");
+        Files.write(file, Arrays.asList("username,password", "dsyer,other", "html5,secret", "html5,again"),
+                StandardCharsets.UTF_8);
+        try {
+            assertEquals(1, this.importer.importAccounts(file));
+            assertEquals("cloud", this.jdbcTemplate.queryForObject(
+                    "select password from account where username = ?", String.class, "dsyer"));
+            assertEquals("secret", this.jdbcTemplate.queryForObject(
+                    "select password from account where username = ?", String.class, "html5"));
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void rollsBackTheWholeFileOnABadRecord() throws Exception {
+        Path file = Files.createTempFile("accounts", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("username,password\n");
+            for (int i = 0; i < 250; i++) {
+                writer.write("user" + i + ",secret\n");
+            }
+            writer.write("nopassword,\n");
+        }
+        try {
+            this.importer.importAccounts(file);
+            fail("a record without a password was imported");
+        }
+        catch (IllegalArgumentException expected) {
+            assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject("select count(*) from account", Integer.class));
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+}
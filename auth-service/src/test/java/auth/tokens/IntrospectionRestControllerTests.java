@@ -0,0 +1,48 @@
+package auth.tokens;
+
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static auth.tokens.IntrospectionTokenStoreTests.authentication;
+import static org.junit.Assert.assertEquals;
+
+public class IntrospectionRestControllerTests {
+
+    private final IntrospectionTokenStore tokenStore = new IntrospectionTokenStore();
+
+    private final IntrospectionRestController controller =
+            new IntrospectionRestController(this.tokenStore, 2, "ROLE_TRUSTED_CLIENT");
+
+    @Test
+    public void onlyTrustedClientsMayIntrospect() {
+        this.tokenStore.storeAccessToken(new DefaultOAuth2AccessToken("1234"), authentication("html5", "ROLE_USER"));
+
+        assertEquals(HttpStatus.FORBIDDEN,
+                this.controller.introspect("1234", authentication("html5", "ROLE_USER", "ROLE_ADMIN")).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, this.controller.introspect(Collections.singletonList("1234"),
+                authentication("html5", "ROLE_USER")).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, this.controller.introspect("1234", null).getStatusCode());
+
+        ResponseEntity<Map<String, Object>> view =
+                this.controller.introspect("1234", authentication("gateway", "ROLE_TRUSTED_CLIENT"));
+        assertEquals(HttpStatus.OK, view.getStatusCode());
+        assertEquals(true, view.getBody().get("active"));
+    }
+
+    @Test
+    public void turnsAwayBatchesOverTheLimit() {
+        assertEquals(HttpStatus.BAD_REQUEST, this.controller.introspect(Arrays.asList("1", "2", "3"),
+                authentication("gateway", "ROLE_TRUSTED_CLIENT")).getStatusCode());
+
+        ResponseEntity<Map<String, Map<String, Object>>> views = this.controller.introspect(Arrays.asList("1", "2"),
+                authentication("gateway", "ROLE_TRUSTED_CLIENT"));
+        assertEquals(HttpStatus.OK, views.getStatusCode());
+        assertEquals(IntrospectionTokenStore.INACTIVE, views.getBody().get("1"));
+    }
+}
@@ -0,0 +1,74 @@
+package auth.tokens;
+
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class IntrospectionTokenStoreTests {
+
+    private final IntrospectionTokenStore tokenStore = new IntrospectionTokenStore();
+
+    @Test
+    public void keepsAViewUntilTheTokenIsRemoved() {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("1234");
+        token.setScope(Collections.singleton("openid"));
+        this.tokenStore.storeAccessToken(token, authentication("html5", "ROLE_USER"));
+
+        Map<String, Object> view = this.tokenStore.introspect("1234");
+        assertEquals(true, view.get("active"));
+        assertEquals("dsyer", view.get("username"));
+        assertEquals("html5", view.get("client_id"));
+        assertEquals("openid", view.get("scope"));
+        assertEquals(Collections.singletonList("ROLE_USER"), view.get("authorities"));
+
+        this.tokenStore.removeAccessToken("1234");
+        assertSame(IntrospectionTokenStore.INACTIVE, this.tokenStore.introspect("1234"));
+    }
+
+    @Test
+    public void dropsTheViewOfARefreshedToken() {
+        DefaultTokenServices tokenServices = new DefaultTokenServices();
+        tokenServices.setTokenStore(this.tokenStore);
+        tokenServices.setSupportRefreshToken(true);
+        OAuth2AccessToken token = tokenServices.createAccessToken(authentication("html5", "ROLE_USER"));
+        assertEquals(true, this.tokenStore.introspect(token.getValue()).get("active"));
+
+        OAuth2AccessToken refreshed = tokenServices.refreshAccessToken(token.getRefreshToken().getValue(),
+                new TokenRequest(Collections.emptyMap(), "html5", Collections.singleton("openid"), "refresh_token"));
+        assertSame(IntrospectionTokenStore.INACTIVE, this.tokenStore.introspect(token.getValue()));
+        assertEquals(true, this.tokenStore.introspect(refreshed.getValue()).get("active"));
+    }
+
+    @Test
+    public void answersInactiveForExpiredAndUnknownTokens() {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("1234");
+        token.setExpiration(new Date(System.currentTimeMillis() - 1000));
+        this.tokenStore.storeAccessToken(token, authentication("html5", "ROLE_USER"));
+
+        assertSame(IntrospectionTokenStore.INACTIVE, this.tokenStore.introspect("1234"));
+        assertNull(this.tokenStore.readAccessToken("1234"));
+        assertSame(IntrospectionTokenStore.INACTIVE, this.tokenStore.introspect("5678"));
+        assertSame(IntrospectionTokenStore.INACTIVE, this.tokenStore.introspect(null));
+    }
+
+    // a password grant for dsyer, by a client with clientAuthorities
+    static OAuth2Authentication authentication(String clientId, String... clientAuthorities) {
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), clientId,
+                AuthorityUtils.createAuthorityList(clientAuthorities), true, Collections.singleton("openid"),
+                null, null, null, null);
+        return new OAuth2Authentication(request, new UsernamePasswordAuthenticationToken("dsyer", "cloud",
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
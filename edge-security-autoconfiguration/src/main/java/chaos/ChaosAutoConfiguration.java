@@ -0,0 +1,53 @@
+package chaos;
+
+import metrics.Counters;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * The {@code chaos} profile: injected latency, errors and pauses for capacity testing
+ * against a degraded instance, see {@link ChaosProperties}.
+ */
+@Configuration
+@Profile("chaos")
+@ConditionalOnWebApplication
+public class ChaosAutoConfiguration {
+
+    @Bean
+    @ConfigurationProperties("edge.chaos")
+    ChaosProperties chaosProperties() {
+        return new ChaosProperties();
+    }
+
+    // inside the deadline and timing filters, so callers see the injected latency as theirs
+    @Bean
+    FilterRegistrationBean chaosFilter(ChaosProperties chaosProperties, ListableBeanFactory beanFactory) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new ChaosFilter(chaosProperties, Counters.forBeanFactory(beanFactory)));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    @Configuration
+    @ConditionalOnClass(Endpoint.class)
+    public static class ChaosEndpointConfiguration {
+
+        @Bean
+        ChaosEndpoint chaosEndpoint(ChaosProperties chaosProperties) {
+            return new ChaosEndpoint(chaosProperties);
+        }
+
+        @Bean
+        ChaosEndpoint.ChaosMvcEndpoint chaosMvcEndpoint(ChaosEndpoint chaosEndpoint) {
+            return new ChaosEndpoint.ChaosMvcEndpoint(chaosEndpoint);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package chaos;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.actuate.endpoint.mvc.EndpointMvcAdapter;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
+
+// sensitive like any endpoint that changes how the instance behaves, POST /chaos needs management.security.role
+class ChaosEndpoint extends AbstractEndpoint<ChaosProperties> {
+
+    private final ChaosProperties properties;
+
+    ChaosEndpoint(ChaosProperties properties) {
+        super("chaos", true);
+        this.properties = properties;
+    }
+
+    @Override
+    public ChaosProperties invoke() {
+        return this.properties;
+    }
+
+    /**
+     * {@code GET /chaos} shows the current settings, {@code POST /chaos} with a JSON
+     * object such as <code>{"distribution": "LOGNORMAL", "errorRate": 0.05}</code>
+     * changes the ones it names.
+     */
+    static class ChaosMvcEndpoint extends EndpointMvcAdapter {
+
+        private final ChaosEndpoint endpoint;
+
+        ChaosMvcEndpoint(ChaosEndpoint endpoint) {
+            super(endpoint);
+            this.endpoint = endpoint;
+        }
+
+        @RequestMapping(method = RequestMethod.POST)
+        @ResponseBody
+        public Object set(@RequestBody Map<String, Object> settings) {
+            new BeanWrapperImpl(this.endpoint.properties).setPropertyValues(new MutablePropertyValues(settings));
+            return this.endpoint.invoke();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package chaos;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Makes this instance look degraded, as configured by {@link ChaosProperties}: every
+ * request waits for a latency drawn from the configured distribution, then fails with
+ * {@code errorStatus} at {@code errorRate}. Pauses stall every request on the instance
+ * at once, on the way in and on the way out, much like a stop-the-world collection.
+ */
+class ChaosFilter extends OncePerRequestFilter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final AtomicLong nextPause = new AtomicLong();
+
+    private final ChaosProperties properties;
+
+    private final Consumer<String> metrics;
+
+    private volatile long pausedUntil;
+
+    ChaosFilter(ChaosProperties properties, Consumer<String> metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath() + (request.getPathInfo() == null ? "" : request.getPathInfo());
+        return this.properties.getExcludes().stream().anyMatch(exclude -> this.pathMatcher.match(exclude, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            this.pause();
+            sleep(this.latencyMillis());
+            if (ThreadLocalRandom.current().nextDouble() < this.properties.getErrorRate()) {
+                this.metrics.accept("chaos.error");
+                response.sendError(this.properties.getErrorStatus(), "injected by the chaos profile");
+                return;
+            }
+            filterChain.doFilter(request, response);
+            this.pause();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(e);
+        }
+    }
+
+    long latencyMillis() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double latency = this.properties.getLatencyMillis();
+        switch (this.properties.getDistribution()) {
+            case FIXED:
+                break;
+            case UNIFORM:
+                latency = random.nextDouble() * 2 * latency;
+                break;
+            case EXPONENTIAL:
+                latency = -latency * Math.log(1 - random.nextDouble());
+                break;
+            case LOGNORMAL:
+                latency = latency * Math.exp(this.properties.getLatencySigma() * random.nextGaussian());
+                break;
+            default:
+                return 0;
+        }
+        return Math.min((long) latency, this.properties.getMaxLatencyMillis());
+    }
+
+    // the first request past the scheduled time starts the pause, everyone waits it out
+    private void pause() throws InterruptedException {
+        long every = this.properties.getPauseEveryMillis();
+        if (every <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long next = this.nextPause.get();
+        if (next == 0) {
+            this.nextPause.compareAndSet(0, now + this.exponential(every));
+        }
+        else if (now >= next && this.nextPause.compareAndSet(next, now + this.exponential(every))) {
+            this.metrics.accept("chaos.pause");
+            this.pausedUntil = now + this.properties.getPauseMillis();
+        }
+        sleep(this.pausedUntil - now);
+    }
+
+    private long exponential(long mean) {
+        return (long) (-mean * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package chaos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * How degraded this instance behaves. Bound from {@code edge.chaos} at startup and
+ * changed at runtime through the {@code /chaos} endpoint, so the fields are volatile.
+ */
+public class ChaosProperties {
+
+    public enum Distribution {
+        NONE, FIXED, UNIFORM, EXPONENTIAL, LOGNORMAL
+    }
+
+    private volatile Distribution distribution = Distribution.NONE;
+
+    // the fixed value, the mean of UNIFORM and EXPONENTIAL, the median of LOGNORMAL
+    private volatile long latencyMillis = 100;
+
+    // the spread of LOGNORMAL, 1 puts the p99 at about ten times the median
+    private volatile double latencySigma = 1;
+
+    private volatile long maxLatencyMillis = 30_000;
+
+    private volatile double errorRate;
+
+    private volatile int errorStatus = 503;
+
+    // mean time between stop-the-world pauses, 0 for none
+    private volatile long pauseEveryMillis;
+
+    private volatile long pauseMillis = 500;
+
+    // never slowed down or failed, so the instance can still be observed and reset
+    private volatile List<String> excludes = new ArrayList<>(Arrays.asList(
+            "/health/**", "/info/**", "/chaos/**", "/metrics/**"));
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    public void setDistribution(Distribution distribution) {
+        this.distribution = distribution;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public double getLatencySigma() {
+        return latencySigma;
+    }
+
+    public void setLatencySigma(double latencySigma) {
+        this.latencySigma = latencySigma;
+    }
+
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis;
+    }
+
+    public void setMaxLatencyMillis(long maxLatencyMillis) {
+        this.maxLatencyMillis = maxLatencyMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public void setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+    }
+
+    public long getPauseEveryMillis() {
+        return pauseEveryMillis;
+    }
+
+    public void setPauseEveryMillis(long pauseEveryMillis) {
+        this.pauseEveryMillis = pauseEveryMillis;
+    }
+
+    public long getPauseMillis() {
+        return pauseMillis;
+    }
+
+    public void setPauseMillis(long pauseMillis) {
+        this.pauseMillis = pauseMillis;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    public void setExcludes(List<String> excludes) {
+        this.excludes = excludes;
+    }
+}
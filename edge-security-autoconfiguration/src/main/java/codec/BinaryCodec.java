@@ -0,0 +1,52 @@
+package codec;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.lang.reflect.Type;
+
+/**
+ * Smile, Jackson's binary JSON, for the calls services make to each other. Servers
+ * offer it after JSON, so only a caller that asks for it gets it. Callers ask for it
+ * first and fall back to JSON, so a service without the codec still answers.
+ */
+public abstract class BinaryCodec {
+
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "x-jackson-smile");
+
+    public static final String ACCEPT = MEDIA_TYPE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    static HttpMessageConverter<Object> serverConverter() {
+        return new MappingJackson2SmileHttpMessageConverter();
+    }
+
+    /**
+     * Reads Smile ahead of any other converter, but only writes request bodies as Smile
+     * when the caller set that content type, so form posts and calls to other services
+     * are written as before.
+     */
+    static HttpMessageConverter<Object> clientConverter() {
+        return new ClientConverter();
+    }
+
+    static void preferBinary(RestTemplate restTemplate) {
+        if (restTemplate.getMessageConverters().stream().noneMatch(ClientConverter.class::isInstance)) {
+            restTemplate.getMessageConverters().add(0, clientConverter());
+        }
+    }
+
+    private static class ClientConverter extends MappingJackson2SmileHttpMessageConverter {
+
+        @Override
+        public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+            return mediaType != null && super.canWrite(clazz, mediaType);
+        }
+
+        @Override
+        public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+            return mediaType != null && super.canWrite(type, clazz, mediaType);
+        }
+    }
+}
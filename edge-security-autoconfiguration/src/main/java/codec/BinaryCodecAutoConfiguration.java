@@ -0,0 +1,106 @@
+package codec;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import feign.RequestInterceptor;
+import feign.codec.Decoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.UserInfoRestTemplateCustomizer;
+import org.springframework.boot.autoconfigure.web.HttpMessageConverters;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.netflix.feign.support.ResponseEntityDecoder;
+import org.springframework.cloud.netflix.feign.support.SpringDecoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.security.oauth2.client.OAuth2RestTemplate;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Negotiates {@link BinaryCodec Smile} on the hops between our services: the
+ * {@code @LoadBalanced RestTemplate} and Feign calls to greetings-service and the
+ * {@code userInfoUri} token check against auth-service. Browsers keep getting JSON.
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnClass(SmileFactory.class)
+@ConditionalOnProperty(name = "edge.codec.binary.enabled", matchIfMissing = true)
+public class BinaryCodecAutoConfiguration {
+
+    // added after JSON, so only requests that ask for Smile get it
+    @Bean
+    WebMvcConfigurerAdapter binaryCodecMessageConverters() {
+        return new WebMvcConfigurerAdapter() {
+
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.add(BinaryCodec.serverConverter());
+            }
+        };
+    }
+
+    // only load-balanced templates call our services, the others may talk to external OAuth2 providers
+    @Bean
+    SmartInitializingSingleton binaryCodecLoadBalancedRestTemplates(
+            @LoadBalanced ObjectProvider<List<RestTemplate>> restTemplates) {
+        return () -> {
+            List<RestTemplate> loadBalanced = restTemplates.getIfAvailable();
+            if (loadBalanced != null) {
+                loadBalanced.forEach(BinaryCodec::preferBinary);
+            }
+        };
+    }
+
+    @Configuration
+    @ConditionalOnClass(OAuth2RestTemplate.class)
+    public static class UserInfoBinaryCodecConfiguration {
+
+        @Bean
+        UserInfoRestTemplateCustomizer binaryCodecUserInfoRestTemplateCustomizer() {
+            return BinaryCodec::preferBinary;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(Decoder.class)
+    public static class FeignBinaryCodecConfiguration {
+
+        @Bean
+        RequestInterceptor binaryCodecAcceptRequestInterceptor() {
+            return requestTemplate -> {
+                if (!requestTemplate.headers().containsKey(HttpHeaders.ACCEPT)) {
+                    requestTemplate.header(HttpHeaders.ACCEPT, BinaryCodec.ACCEPT);
+                }
+            };
+        }
+
+        // replaces the default decoder of every Feign client, with Smile ahead of the application's converters
+        @Bean
+        Decoder feignDecoder(ObjectFactory<HttpMessageConverters> messageConverters) {
+            return new ResponseEntityDecoder(new SpringDecoder(new ObjectFactory<HttpMessageConverters>() {
+
+                private volatile HttpMessageConverters converters;
+
+                @Override
+                public HttpMessageConverters getObject() {
+                    if (this.converters == null) {
+                        List<HttpMessageConverter<?>> list = new ArrayList<>();
+                        list.add(BinaryCodec.clientConverter());
+                        list.addAll(messageConverters.getObject().getConverters());
+                        this.converters = new HttpMessageConverters(false, list);
+                    }
+                    return this.converters;
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package deadline;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.servlet.ServletRequest;
+
+/**
+ * The point in time after which nobody is waiting for the current request's answer. It
+ * travels between services as the milliseconds left, not as a timestamp, so that clock
+ * skew between hosts doesn't matter. It's kept as a request attribute, so work handed to
+ * the {@code outboundExecutor} sees it too.
+ */
+public abstract class Deadline {
+
+    public static final String HEADER = "X-Request-Timeout";
+
+    static final String ATTRIBUTE = Deadline.class.getName();
+
+    static void set(ServletRequest request, long remainingMillis) {
+        request.setAttribute(ATTRIBUTE, System.currentTimeMillis() + remainingMillis);
+    }
+
+    static Long remainingMillis(ServletRequest request) {
+        Object deadline = request.getAttribute(ATTRIBUTE);
+        return deadline == null ? null : (Long) deadline - System.currentTimeMillis();
+    }
+
+    /**
+     * Brings the request's deadline forward to {@code millis} from now, unless it's sooner
+     * already, for work that has a tighter budget than the request as a whole.
+     */
+    public static void restrict(ServletRequest request, long millis) {
+        Long remaining = remainingMillis(request);
+        if (remaining == null || remaining > millis) {
+            set(request, millis);
+        }
+    }
+
+    /**
+     * @return the milliseconds left for the current request, or null if it has no deadline
+     */
+    public static Long remainingMillis() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object deadline = attributes == null ? null : attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return deadline == null ? null : (Long) deadline - System.currentTimeMillis();
+    }
+
+    // parses the header, anything unreadable counts as no deadline
+    static Long parse(String header) {
+        if (header == null || header.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package deadline;
+
+import feign.RequestInterceptor;
+import metrics.Counters;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+/**
+ * Every service takes the deadline from {@link Deadline#HEADER} and sheds requests that
+ * arrive after it. Services that set {@code edge.deadline.default-millis} give requests
+ * without the header a deadline of their own. Feign and {@code RestTemplate} calls pass
+ * it on. Below {@code edge.deadline.min-millis} a request isn't worth starting, and a
+ * call isn't worth making: calls that are skipped for it answer 504.
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "edge.deadline.enabled", matchIfMissing = true)
+public class DeadlineAutoConfiguration {
+
+    @Bean
+    DeadlinePropagation deadlinePropagation(ListableBeanFactory beanFactory,
+                                            @Value("${edge.deadline.min-millis:10}") long minMillis) {
+        return new DeadlinePropagation(minMillis, Counters.forBeanFactory(beanFactory));
+    }
+
+    // ahead of sessions and security, shed work should cost as little as possible
+    @Bean
+    FilterRegistrationBean deadlineFilter(ListableBeanFactory beanFactory,
+                                          @Value("${edge.deadline.default-millis:0}") long defaultMillis,
+                                          @Value("${edge.deadline.min-millis:10}") long minMillis) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new DeadlineFilter(defaultMillis, minMillis, Counters.forBeanFactory(beanFactory)));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    // and again once security, sessions and admission queues are done with it
+    @Bean
+    WebMvcConfigurerAdapter deadlineInterceptorConfigurer(ListableBeanFactory beanFactory,
+                                                         @Value("${edge.deadline.min-millis:10}") long minMillis) {
+        DeadlineInterceptor interceptor = new DeadlineInterceptor(minMillis, Counters.forBeanFactory(beanFactory));
+        return new WebMvcConfigurerAdapter() {
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+
+    @Bean
+    DeadlineExceededResolver deadlineExceededResolver() {
+        return new DeadlineExceededResolver();
+    }
+
+    @Bean
+    static BeanPostProcessor deadlineRestTemplatePostProcessor(ListableBeanFactory beanFactory) {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RestTemplate) {
+                    RestTemplate.class.cast(bean).getInterceptors().add(beanFactory.getBean(DeadlinePropagation.class));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Configuration
+    @ConditionalOnClass(RequestInterceptor.class)
+    public static class FeignDeadlineConfiguration {
+
+        @Bean
+        RequestInterceptor deadlineRequestInterceptor(DeadlinePropagation deadlinePropagation) {
+            return requestTemplate -> {
+                String header = deadlinePropagation.header(requestTemplate.url());
+                if (header != null) {
+                    requestTemplate.header(Deadline.HEADER, header);
+                }
+            };
+        }
+    }
+}
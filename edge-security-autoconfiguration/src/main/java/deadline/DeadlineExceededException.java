@@ -0,0 +1,8 @@
+package deadline;
+
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String target) {
+        super("deadline passed before calling " + target);
+    }
+}
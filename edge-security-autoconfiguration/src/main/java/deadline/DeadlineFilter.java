@@ -0,0 +1,45 @@
+package deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// takes the caller's deadline (or assigns the default) and turns away work nobody waits for anymore
+class DeadlineFilter extends OncePerRequestFilter {
+
+    private final long defaultMillis;
+
+    private final long minMillis;
+
+    private final Consumer<String> counters;
+
+    DeadlineFilter(long defaultMillis, long minMillis, Consumer<String> counters) {
+        this.defaultMillis = defaultMillis;
+        this.minMillis = minMillis;
+        this.counters = counters;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long remaining = Deadline.parse(request.getHeader(Deadline.HEADER));
+        if (remaining == null && this.defaultMillis > 0) {
+            remaining = this.defaultMillis;
+        }
+        if (remaining != null) {
+            if (remaining <= 0 || remaining < this.minMillis) {
+                this.counters.accept("deadline.shed.inbound");
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "deadline exceeded");
+                return;
+            }
+            Deadline.set(request, remaining);
+        }
+        filterChain.doFilter(request, response);
+    }
+}
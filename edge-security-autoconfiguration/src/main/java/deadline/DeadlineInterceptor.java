@@ -0,0 +1,42 @@
+package deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.function.Consumer;
+
+/**
+ * Checks the deadline again right before the handler runs. The filter admits a request
+ * as it arrives, but it may then wait in admission queues, for a session or for token
+ * checks, and our own callers never send less than {@code minMillis}.
+ */
+class DeadlineInterceptor extends HandlerInterceptorAdapter {
+
+    private final long minMillis;
+
+    private final Consumer<String> counters;
+
+    DeadlineInterceptor(long minMillis, Consumer<String> counters) {
+        this.minMillis = minMillis;
+        this.counters = counters;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        // an async dispatch carries a result that's already paid for
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Long remaining = Deadline.remainingMillis(request);
+        if (remaining != null && (remaining <= 0 || remaining < this.minMillis)) {
+            this.counters.accept("deadline.shed.handler");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "deadline exceeded");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,48 @@
+package deadline;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Passes what's left of the deadline on to outbound {@code RestTemplate} calls, and
+ * doesn't make the call at all once less than {@code minMillis} is left.
+ */
+class DeadlinePropagation implements ClientHttpRequestInterceptor {
+
+    private final long minMillis;
+
+    private final Consumer<String> counters;
+
+    DeadlinePropagation(long minMillis, Consumer<String> counters) {
+        this.minMillis = minMillis;
+        this.counters = counters;
+    }
+
+    // the header value for an outbound call to target, or null if there's no deadline
+    String header(String target) {
+        Long remaining = Deadline.remainingMillis();
+        if (remaining == null) {
+            return null;
+        }
+        if (remaining <= 0 || remaining < this.minMillis) {
+            this.counters.accept("deadline.shed.outbound");
+            throw new DeadlineExceededException(target);
+        }
+        return Long.toString(remaining);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String header = this.header(request.getURI().toString());
+        if (header != null) {
+            request.getHeaders().set(Deadline.HEADER, header);
+        }
+        return execution.execute(request, body);
+    }
+}
@@ -0,0 +1,91 @@
+package discovery;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the last registry fetched in {@link DiskBackupRegistry}'s file. A node that
+ * starts while the registry is down or slow has its Ribbon server lists, Zuul routes
+ * and everything else that asks the {@code DiscoveryClient} filled from there, instead
+ * of starting empty. Switched on by
+ * {@code eureka.client.backup-registry-impl=discovery.DiskBackupRegistry}.
+ */
+@Configuration
+@ConditionalOnClass(EurekaClient.class)
+@ConditionalOnProperty(name = "eureka.client.backup-registry-impl", havingValue = "discovery.DiskBackupRegistry")
+public class DiscoveryCacheAutoConfiguration {
+
+    @Bean
+    DiscoveryCache discoveryCache(EurekaClient eurekaClient) {
+        return new DiscoveryCache(eurekaClient);
+    }
+
+    @Configuration
+    @ConditionalOnClass(HealthIndicator.class)
+    public static class DiscoveryCacheHealthConfiguration {
+
+        // UP with a detail, so it shows without taking the node out of rotation
+        @Bean
+        HealthIndicator discoveryCacheHealthIndicator() {
+            return () -> DiskBackupRegistry.isStale() ?
+                    Health.up().withDetail("stale", true)
+                            .withDetail("cachedAt", DiskBackupRegistry.getRestoredFrom()).build() :
+                    Health.up().build();
+        }
+    }
+
+    static class DiscoveryCache {
+
+        private final Log log = LogFactory.getLog(getClass());
+
+        private final RegistrySnapshotCodec codec = new RegistrySnapshotCodec();
+
+        private final EurekaClient eurekaClient;
+
+        private String lastHashCode;
+
+        DiscoveryCache(EurekaClient eurekaClient) {
+            this.eurekaClient = eurekaClient;
+        }
+
+        // a heartbeat follows every successful fetch, only write when something changed
+        @EventListener(HeartbeatEvent.class)
+        public synchronized void onHeartbeat() {
+            DiskBackupRegistry.markFresh();
+            Applications applications = this.eurekaClient.getApplications();
+            String hashCode = applications.getReconcileHashCode();
+            Path file = DiskBackupRegistry.getFile();
+            if (file == null || hashCode.equals(this.lastHashCode)) {
+                return;
+            }
+            List<InstanceInfo> instances = new ArrayList<>();
+            for (Application application : applications.getRegisteredApplications()) {
+                instances.addAll(application.getInstances());
+            }
+            try {
+                this.codec.write(file, instances);
+                this.lastHashCode = hashCode;
+            }
+            catch (IOException e) {
+                log.warn("couldn't write cached registry " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package discovery;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.nio.file.Paths;
+
+// Eureka may fall back to the DiskBackupRegistry while the first beans are being created, so it learns its file up front
+public class DiscoveryCacheInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        ConfigurableEnvironment environment = context.getEnvironment();
+        if (environment.getPropertySources().contains("bootstrap")) {
+            return;
+        }
+        String file = environment.getProperty("edge.discovery.cache.file",
+                environment.resolvePlaceholders("${java.io.tmpdir}/${spring.application.name:application}-discovery.cache"));
+        DiskBackupRegistry.setFile(Paths.get(file));
+    }
+}
@@ -0,0 +1,86 @@
+package discovery;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.BackupRegistry;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hands Eureka the last registry this node saw when the first fetch from the registry
+ * fails. Eureka creates it reflectively through {@code eureka.client.backup-registry-impl},
+ * so the {@link DiscoveryCacheInitializer} tells it where the file is. What it returns
+ * is {@link #isStale() stale} until a fetch from the registry succeeds.
+ */
+public class DiskBackupRegistry implements BackupRegistry {
+
+    private static volatile Path file;
+
+    private static volatile long restoredFrom;
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final RegistrySnapshotCodec codec = new RegistrySnapshotCodec();
+
+    static void setFile(Path file) {
+        DiskBackupRegistry.file = file;
+    }
+
+    static Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return when the cached registry being served was written, or 0 once it's been
+     * replaced by a fresh fetch (or was never used)
+     */
+    public static long getRestoredFrom() {
+        return restoredFrom;
+    }
+
+    public static boolean isStale() {
+        return restoredFrom != 0;
+    }
+
+    static void markFresh() {
+        restoredFrom = 0;
+    }
+
+    @Override
+    public Applications fetchRegistry() {
+        Path file = DiskBackupRegistry.file;
+        if (file == null || !Files.exists(file)) {
+            return null;
+        }
+        try {
+            RegistrySnapshotCodec.Snapshot snapshot = this.codec.read(file);
+            Map<String, Application> byName = new LinkedHashMap<>();
+            for (InstanceInfo instance : snapshot.getInstances()) {
+                byName.computeIfAbsent(instance.getAppName(), Application::new).addInstance(instance);
+            }
+            Applications applications = new Applications();
+            byName.values().forEach(applications::addApplication);
+            // builds the VIP indexes Ribbon looks servers up by
+            applications.shuffleInstances(true);
+            restoredFrom = snapshot.getTakenAt();
+            log.warn(String.format("registry unavailable, serving %d cached instances from %s (%ds old)",
+                    snapshot.getInstances().size(), file, (System.currentTimeMillis() - snapshot.getTakenAt()) / 1000));
+            return applications;
+        }
+        catch (Exception e) {
+            log.warn("couldn't read cached registry " + file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public Applications fetchRegistry(String[] includeRemoteRegions) {
+        return this.fetchRegistry();
+    }
+}
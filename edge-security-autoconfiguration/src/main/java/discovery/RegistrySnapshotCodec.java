@@ -0,0 +1,168 @@
+package discovery;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact, deflated snapshot of registry instances. It keeps what a client needs to
+ * route to an instance: addresses, ports, VIPs, status, URLs, metadata and lease
+ * timings. Amazon data center info isn't kept.
+ *
+ * <pre>
+ * version:1 | takenAt:8 | count:4 | instance*
+ * </pre>
+ */
+public class RegistrySnapshotCodec {
+
+    private static final byte VERSION = 1;
+
+    public void write(Path file, Collection<InstanceInfo> instances) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            this.write(out, instances);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Snapshot read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return this.read(in);
+        }
+    }
+
+    public void write(OutputStream target, Collection<InstanceInfo> instances) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new DeflaterOutputStream(target)));
+        out.writeByte(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(instances.size());
+        for (InstanceInfo instance : instances) {
+            writeInstance(out, instance);
+        }
+        out.flush();
+        out.close();
+    }
+
+    public Snapshot read(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new InflaterInputStream(source)));
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("unsupported registry snapshot version " + version);
+        }
+        long takenAt = in.readLong();
+        int count = in.readInt();
+        List<InstanceInfo> instances = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            instances.add(readInstance(in));
+        }
+        return new Snapshot(takenAt, instances);
+    }
+
+    private static void writeInstance(DataOutputStream out, InstanceInfo instance) throws IOException {
+        writeString(out, instance.getAppName());
+        writeString(out, instance.getInstanceId());
+        writeString(out, instance.getHostName());
+        writeString(out, instance.getIPAddr());
+        out.writeInt(instance.getPort());
+        out.writeBoolean(instance.isPortEnabled(InstanceInfo.PortType.UNSECURE));
+        out.writeInt(instance.getSecurePort());
+        out.writeBoolean(instance.isPortEnabled(InstanceInfo.PortType.SECURE));
+        writeString(out, instance.getVIPAddress());
+        writeString(out, instance.getSecureVipAddress());
+        writeString(out, instance.getStatus().name());
+        writeString(out, instance.getHomePageUrl());
+        writeString(out, instance.getStatusPageUrl());
+        writeString(out, instance.getHealthCheckUrl());
+        writeString(out, instance.getSecureHealthCheckUrl());
+        LeaseInfo lease = instance.getLeaseInfo();
+        out.writeInt(lease == null ? LeaseInfo.DEFAULT_LEASE_DURATION : lease.getDurationInSecs());
+        out.writeInt(lease == null ? LeaseInfo.DEFAULT_LEASE_RENEWAL_INTERVAL : lease.getRenewalIntervalInSecs());
+        out.writeLong(instance.getLastDirtyTimestamp() == null ? 0 : instance.getLastDirtyTimestamp());
+        Map<String, String> metadata = instance.getMetadata() == null ? Collections.emptyMap() : instance.getMetadata();
+        out.writeShort(metadata.size());
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static InstanceInfo readInstance(DataInputStream in) throws IOException {
+        InstanceInfo.Builder builder = InstanceInfo.Builder.newBuilder()
+                .setAppName(readString(in))
+                .setInstanceId(readString(in))
+                .setHostName(readString(in))
+                .setIPAddr(readString(in))
+                .setPort(in.readInt())
+                .enablePort(InstanceInfo.PortType.UNSECURE, in.readBoolean())
+                .setSecurePort(in.readInt())
+                .enablePort(InstanceInfo.PortType.SECURE, in.readBoolean())
+                .setVIPAddress(readString(in))
+                .setSecureVIPAddress(readString(in))
+                .setStatus(InstanceInfo.InstanceStatus.toEnum(readString(in)));
+        builder.setHomePageUrl(null, readString(in));
+        builder.setStatusPageUrl(null, readString(in));
+        builder.setHealthCheckUrls(null, readString(in), readString(in));
+        builder.setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                .setDurationInSecs(in.readInt())
+                .setRenewalIntervalInSecs(in.readInt())
+                .build());
+        long lastDirtyTimestamp = in.readLong();
+        if (lastDirtyTimestamp > 0) {
+            builder.setLastDirtyTimestamp(lastDirtyTimestamp);
+        }
+        int entries = in.readUnsignedShort();
+        // the registry edits metadata in place (see the provisional flag), so it has to be concurrent
+        Map<String, String> metadata = new ConcurrentHashMap<>(entries);
+        for (int i = 0; i < entries; i++) {
+            String key = readString(in), value = readString(in);
+            if (key != null && value != null) {
+                metadata.put(key, value);
+            }
+        }
+        builder.setMetadata(metadata);
+        builder.setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn));
+        return builder.build();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public static class Snapshot {
+
+        private final long takenAt;
+
+        private final List<InstanceInfo> instances;
+
+        Snapshot(long takenAt, List<InstanceInfo> instances) {
+            this.takenAt = takenAt;
+            this.instances = instances;
+        }
+
+        public long getTakenAt() {
+            return takenAt;
+        }
+
+        public List<InstanceInfo> getInstances() {
+            return instances;
+        }
+    }
+}
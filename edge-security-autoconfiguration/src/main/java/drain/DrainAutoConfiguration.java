@@ -0,0 +1,69 @@
+package drain;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Drain before deregistering: on shutdown the instance goes OUT_OF_SERVICE in Eureka,
+ * stays up while callers' registry and Ribbon caches catch up, and finishes the
+ * requests it has before the container stops. Only on with {@code edge.drain.enabled}:
+ * the wait is only worth it where callers cache the registry.
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "edge.drain.enabled", matchIfMissing = false)
+public class DrainAutoConfiguration {
+
+    @Bean
+    InFlightFilter inFlightFilter() {
+        return new InFlightFilter();
+    }
+
+    @Bean
+    FilterRegistrationBean inFlightFilterRegistration(InFlightFilter inFlightFilter) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(inFlightFilter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Configuration
+    @ConditionalOnClass(ApplicationInfoManager.class)
+    public static class EurekaDrainConfiguration {
+
+        @Bean
+        GracefulShutdown gracefulShutdown(InFlightFilter inFlightFilter,
+                                          ObjectProvider<ApplicationInfoManager> applicationInfoManager,
+                                          @Value("${edge.drain.deregistration-delay-millis:10000}") long delay,
+                                          @Value("${edge.drain.timeout-millis:15000}") long timeout) {
+            return new GracefulShutdown(inFlightFilter, () -> {
+                ApplicationInfoManager manager = applicationInfoManager.getIfAvailable();
+                if (manager != null) {
+                    manager.setInstanceStatus(InstanceStatus.OUT_OF_SERVICE);
+                }
+            }, delay, timeout);
+        }
+    }
+
+    // nobody to tell, just let the requests in flight finish
+    @Configuration
+    @ConditionalOnMissingClass("com.netflix.appinfo.ApplicationInfoManager")
+    public static class LocalDrainConfiguration {
+
+        @Bean
+        GracefulShutdown gracefulShutdown(InFlightFilter inFlightFilter,
+                                          @Value("${edge.drain.timeout-millis:15000}") long timeout) {
+            return new GracefulShutdown(inFlightFilter, () -> {
+            }, 0, timeout);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package drain;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Stops ahead of every other lifecycle bean, the Eureka registration and the embedded
+ * container included. It takes the instance out of service, waits
+ * {@code deregistrationDelayMillis} for callers to see that, then waits up to
+ * {@code drainTimeoutMillis} for the requests still in flight to finish. Both waits
+ * have to fit in the lifecycle processor's 30 second shutdown timeout.
+ */
+class GracefulShutdown implements SmartLifecycle {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final InFlightFilter inFlight;
+
+    private final Runnable markOutOfService;
+
+    private final long deregistrationDelayMillis;
+
+    private final long drainTimeoutMillis;
+
+    private volatile boolean running;
+
+    GracefulShutdown(InFlightFilter inFlight, Runnable markOutOfService,
+                     long deregistrationDelayMillis, long drainTimeoutMillis) {
+        this.inFlight = inFlight;
+        this.markOutOfService = markOutOfService;
+        this.deregistrationDelayMillis = deregistrationDelayMillis;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    @Override
+    public void start() {
+        this.running = true;
+    }
+
+    @Override
+    public void stop() {
+        long start = System.currentTimeMillis();
+        try {
+            this.markOutOfService.run();
+            log.info(String.format("out of service, draining for %d ms", this.deregistrationDelayMillis));
+            Thread.sleep(this.deregistrationDelayMillis);
+            long deadline = System.currentTimeMillis() + this.drainTimeoutMillis;
+            while (this.inFlight.getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            this.running = false;
+            log.info(String.format("drained in %d ms, %d requests still in flight",
+                    System.currentTimeMillis() - start, this.inFlight.getInFlight()));
+        }
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        this.stop();
+        callback.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,90 @@
+package drain;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// counts requests until their response is complete, async ones included
+class InFlightFilter extends OncePerRequestFilter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    int getInFlight() {
+        return this.inFlight.get();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Completion completion = new Completion();
+        this.inFlight.incrementAndGet();
+        try {
+            filterChain.doFilter(new AsyncListening(request, completion), response);
+        }
+        finally {
+            if (!request.isAsyncStarted()) {
+                completion.complete();
+            }
+        }
+    }
+
+    // adds the listener as async processing starts, before the work it hands off can complete
+    private static class AsyncListening extends HttpServletRequestWrapper {
+
+        private final Completion completion;
+
+        AsyncListening(HttpServletRequest request, Completion completion) {
+            super(request);
+            this.completion = completion;
+        }
+
+        @Override
+        public AsyncContext startAsync() throws IllegalStateException {
+            AsyncContext asyncContext = super.startAsync();
+            asyncContext.addListener(this.completion);
+            return asyncContext;
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest request, ServletResponse response) throws IllegalStateException {
+            AsyncContext asyncContext = super.startAsync(request, response);
+            asyncContext.addListener(this.completion);
+            return asyncContext;
+        }
+    }
+
+    private class Completion implements AsyncListener {
+
+        private boolean completed;
+
+        synchronized void complete() {
+            if (!this.completed) {
+                this.completed = true;
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            this.complete();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package execution;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs tasks with the submitting thread's security context and request attributes, so
+ * that the {@code OAuth2ClientContext} and the token relay behave as they would on the
+ * request thread.
+ */
+public class ContextPropagatingTaskExecutor implements AsyncTaskExecutor, DisposableBean {
+
+    private final ExecutorService executor;
+
+    public ContextPropagatingTaskExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        this.executor.execute(wrap(task));
+    }
+
+    @Override
+    public void execute(Runnable task, long startTimeout) {
+        this.execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return this.executor.submit(wrap(task));
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return this.executor.submit(wrap(task));
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdown();
+    }
+
+    static Runnable wrap(Runnable task) {
+        ContextSnapshot snapshot = new ContextSnapshot();
+        return () -> snapshot.run(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    static <T> Callable<T> wrap(Callable<T> task) {
+        ContextSnapshot snapshot = new ContextSnapshot();
+        return () -> snapshot.call(task);
+    }
+
+    private static class ContextSnapshot {
+
+        private final SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        private final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+
+        <T> T call(Callable<T> task) throws Exception {
+            SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+            RequestAttributes previousRequestAttributes = RequestContextHolder.getRequestAttributes();
+            SecurityContextHolder.setContext(this.securityContext);
+            RequestContextHolder.setRequestAttributes(this.requestAttributes);
+            try {
+                return task.call();
+            }
+            finally {
+                SecurityContextHolder.setContext(previousSecurityContext);
+                RequestContextHolder.setRequestAttributes(previousRequestAttributes);
+            }
+        }
+
+        <T> T run(Callable<T> task) {
+            try {
+                return this.call(task);
+            }
+            catch (RuntimeException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
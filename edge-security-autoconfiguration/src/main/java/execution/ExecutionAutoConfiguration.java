@@ -0,0 +1,105 @@
+package execution;
+
+import org.apache.catalina.startup.Tomcat;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.boot.autoconfigure.condition.*;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerCustomizer;
+import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * With {@code edge.threads.virtual=true} on JDK 21+, Tomcat hands every request to its
+ * own virtual thread, so the Feign, {@code RestTemplate} and user info calls made on the
+ * request thread (Hystrix runs them on the caller with {@code SEMAPHORE} isolation) no
+ * longer pin a platform thread while they wait. Work handed off explicitly goes through
+ * the {@code outboundExecutor}, which carries the security context and request attributes.
+ * On platform threads it is {@code edge.threads.outbound-pool-size} (default 8) threads wide.
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnClass(SecurityContextHolder.class)
+public class ExecutionAutoConfiguration {
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "edge.threads.virtual";
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    @Bean
+    @ConditionalOnMissingBean(name = "outboundExecutor")
+    ContextPropagatingTaskExecutor outboundExecutor(Environment environment) {
+        if (environment.getProperty(VIRTUAL_THREADS_PROPERTY, Boolean.class, false)) {
+            if (VirtualThreads.isSupported()) {
+                return new ContextPropagatingTaskExecutor(VirtualThreads.newVirtualThreadPerTaskExecutor());
+            }
+            log.warn(VIRTUAL_THREADS_PROPERTY + " is set but JDK " + System.getProperty("java.version")
+                    + " has no virtual threads, staying on platform threads");
+        }
+        // threads are started on first use and retire when idle, so apps that never hand work off pay nothing
+        int poolSize = environment.getProperty("edge.threads.outbound-pool-size", Integer.class, 8);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("outbound-"));
+        executor.allowCoreThreadTimeOut(true);
+        return new ContextPropagatingTaskExecutor(executor);
+    }
+
+    @Configuration
+    @ConditionalOnClass(Tomcat.class)
+    @Conditional(VirtualThreadsCondition.class)
+    public static class VirtualThreadsConfiguration {
+
+        @Bean
+        EmbeddedServletContainerCustomizer virtualThreadsContainerCustomizer() {
+            return container -> {
+                if (container instanceof TomcatEmbeddedServletContainerFactory) {
+                    ExecutorService requestExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+                    TomcatEmbeddedServletContainerFactory.class.cast(container).addConnectorCustomizers(connector -> {
+                        if (connector.getProtocolHandler() instanceof AbstractProtocol) {
+                            AbstractProtocol.class.cast(connector.getProtocolHandler()).setExecutor(requestExecutor);
+                        }
+                    });
+                }
+            };
+        }
+
+        @Bean
+        WebMvcConfigurerAdapter virtualThreadsAsyncSupport(ContextPropagatingTaskExecutor outboundExecutor) {
+            return new WebMvcConfigurerAdapter() {
+
+                @Override
+                public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                    configurer.setTaskExecutor(outboundExecutor);
+                }
+            };
+        }
+    }
+
+    static class VirtualThreadsCondition extends SpringBootCondition {
+
+        @Override
+        public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            if (!context.getEnvironment().getProperty(VIRTUAL_THREADS_PROPERTY, Boolean.class, false)) {
+                return ConditionOutcome.noMatch(VIRTUAL_THREADS_PROPERTY + " is not set");
+            }
+            if (!VirtualThreads.isSupported()) {
+                return ConditionOutcome.noMatch("JDK " + System.getProperty("java.version") + " has no virtual threads");
+            }
+            return ConditionOutcome.match("virtual threads requested and available");
+        }
+    }
+}
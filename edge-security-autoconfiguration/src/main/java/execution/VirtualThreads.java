@@ -0,0 +1,26 @@
+package execution;
+
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// looked up reflectively so the code still compiles for, and runs on, JDKs without virtual threads
+public abstract class VirtualThreads {
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR =
+            ReflectionUtils.findMethod(Executors.class, "newVirtualThreadPerTaskExecutor");
+
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            throw new IllegalStateException("virtual threads need JDK 21 or later, this is "
+                    + System.getProperty("java.version"));
+        }
+        return (ExecutorService) ReflectionUtils.invokeMethod(NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR, null);
+    }
+}
@@ -0,0 +1,53 @@
+package metrics;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.util.ClassUtils;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Increments actuator counters when the service ships the actuator. Otherwise the
+ * counts are dropped. Not every service has the actuator, so only {@link Actuator}
+ * touches {@link CounterService}. The {@link CounterService} is looked up on the first
+ * count, which comes with the first request, and then kept.
+ */
+public abstract class Counters {
+
+    private static final String COUNTER_SERVICE = "org.springframework.boot.actuate.metrics.CounterService";
+
+    public static Consumer<String> forBeanFactory(ListableBeanFactory beanFactory) {
+        if (!ClassUtils.isPresent(COUNTER_SERVICE, Counters.class.getClassLoader())) {
+            return metric -> {
+            };
+        }
+        return Actuator.forBeanFactory(beanFactory);
+    }
+
+    private static class Actuator implements Consumer<String> {
+
+        private final ListableBeanFactory beanFactory;
+
+        private volatile Optional<CounterService> counterService;
+
+        private Actuator(ListableBeanFactory beanFactory) {
+            this.beanFactory = beanFactory;
+        }
+
+        static Consumer<String> forBeanFactory(ListableBeanFactory beanFactory) {
+            return new Actuator(beanFactory);
+        }
+
+        @Override
+        public void accept(String metric) {
+            Optional<CounterService> counterService = this.counterService;
+            if (counterService == null) {
+                // racing callers find the same bean, so there's no need to lock
+                counterService = this.beanFactory.getBeansOfType(CounterService.class).values().stream().findFirst();
+                this.counterService = counterService;
+            }
+            counterService.ifPresent(counters -> counters.increment(metric));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package relay;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.token.AccessTokenProvider;
+import org.springframework.security.oauth2.client.token.DefaultAccessTokenRequest;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Relays the current {@link OAuth2ClientContext} token as an {@code Authorization} header.
+ * The header is built once per token. A token that has a refresh token, relayed less than
+ * {@code refreshAheadSeconds} before it expires, is refreshed in the background. Every
+ * caller holding that token shares the one refresh and keeps using the old token until the
+ * new one arrives, unless the old one has already expired. After a failed refresh the next
+ * caller tries again, no sooner than a few seconds later. Expired tokens are swept once a
+ * minute.
+ */
+public class TokenRelay implements DisposableBean {
+
+    private static final long SWEEP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final Map<String, Relayed> tokens = new ConcurrentHashMap<>();
+
+    private final OAuth2ClientContext clientContext;
+
+    private final OAuth2ProtectedResourceDetails resource;
+
+    private final AccessTokenProvider accessTokenProvider;
+
+    private final Consumer<String> metrics;
+
+    private final long refreshAheadMillis;
+
+    private long retryMillis = TimeUnit.SECONDS.toMillis(5);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-relay-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TokenRelay(OAuth2ClientContext clientContext, OAuth2ProtectedResourceDetails resource,
+                      AccessTokenProvider accessTokenProvider, Consumer<String> metrics, long refreshAheadSeconds) {
+        this.clientContext = clientContext;
+        this.resource = resource;
+        this.accessTokenProvider = accessTokenProvider;
+        this.metrics = metrics;
+        this.refreshAheadMillis = TimeUnit.SECONDS.toMillis(refreshAheadSeconds);
+        this.scheduler.scheduleWithFixedDelay(this::sweep, SWEEP_MILLIS, SWEEP_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public String authorizationHeader() {
+        OAuth2AccessToken token = this.clientContext.getAccessToken();
+        if (token == null) {
+            return null;
+        }
+        Relayed relayed = this.tokens.computeIfAbsent(token.getValue(), value -> new Relayed(token));
+        Relayed current = relayed.current(this.clientContext);
+        return current == null ? relayed.header : current.header;
+    }
+
+    void setRetryMillis(long retryMillis) {
+        this.retryMillis = retryMillis;
+    }
+
+    void sweep() {
+        this.tokens.values().removeIf(Relayed::isExpired);
+    }
+
+    int size() {
+        return this.tokens.size();
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.shutdownNow();
+    }
+
+    private void count(String metric) {
+        this.metrics.accept(metric);
+    }
+
+    private class Relayed {
+
+        private final OAuth2AccessToken token;
+
+        private final String header;
+
+        private final AtomicReference<CompletableFuture<Relayed>> refresh = new AtomicReference<>();
+
+        private volatile long retryAt;
+
+        Relayed(OAuth2AccessToken token) {
+            this.token = token;
+            this.header = token.getTokenType() + ' ' + token.getValue();
+        }
+
+        boolean isRefreshable() {
+            return TokenRelay.this.resource != null && this.token.getRefreshToken() != null
+                    && this.token.getExpiration() != null;
+        }
+
+        boolean isExpired() {
+            return this.token.isExpired();
+        }
+
+        boolean isRefreshDue() {
+            return this.isRefreshable() && System.currentTimeMillis() >= this.retryAt
+                    && System.currentTimeMillis() >= this.token.getExpiration().getTime() - TokenRelay.this.refreshAheadMillis;
+        }
+
+        // the refreshed token, installed in the caller's context, or null to keep using this one
+        Relayed current(OAuth2ClientContext clientContext) {
+            CompletableFuture<Relayed> refreshed = this.refresh.get();
+            if (refreshed == null && this.isExpired()) {
+                count("relay.token.expired");
+            }
+            if (refreshed == null && this.isRefreshDue()) {
+                refreshed = this.refresh();
+            }
+            if (refreshed == null || (!refreshed.isDone() && !this.isExpired())) {
+                return null;
+            }
+            try {
+                Relayed next = refreshed.join();
+                clientContext.setAccessToken(next.token);
+                return next;
+            }
+            catch (CompletionException e) {
+                return null;
+            }
+        }
+
+        // the first caller starts it on the scheduler, the others get the same future
+        CompletableFuture<Relayed> refresh() {
+            CompletableFuture<Relayed> future = new CompletableFuture<>();
+            if (!this.refresh.compareAndSet(null, future)) {
+                return this.refresh.get();
+            }
+            try {
+                TokenRelay.this.scheduler.execute(() -> this.refresh(future));
+            }
+            catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        private void refresh(CompletableFuture<Relayed> future) {
+            try {
+                OAuth2RefreshToken refreshToken = this.token.getRefreshToken();
+                OAuth2AccessToken refreshed = TokenRelay.this.accessTokenProvider.refreshAccessToken(
+                        TokenRelay.this.resource, refreshToken, new DefaultAccessTokenRequest());
+                if (refreshed.getRefreshToken() == null && refreshed instanceof DefaultOAuth2AccessToken) {
+                    ((DefaultOAuth2AccessToken) refreshed).setRefreshToken(refreshToken);
+                }
+                count("relay.token.refresh");
+                future.complete(TokenRelay.this.tokens.computeIfAbsent(refreshed.getValue(),
+                        value -> new Relayed(refreshed)));
+            }
+            catch (RuntimeException e) {
+                count("relay.token.refresh.failure");
+                log.warn("couldn't refresh access token ahead of its expiry", e);
+                // the next caller after the back-off starts another one
+                this.retryAt = System.currentTimeMillis() + TokenRelay.this.retryMillis;
+                this.refresh.compareAndSet(future, null);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package relay;
 
 import feign.RequestInterceptor;
+import metrics.Counters;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
@@ -9,13 +13,24 @@ import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.security.oauth2.client.OAuth2ClientContext;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 import org.springframework.security.oauth2.client.filter.OAuth2ClientContextFilter;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.token.AccessTokenProviderChain;
+import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsAccessTokenProvider;
+import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeAccessTokenProvider;
+import org.springframework.security.oauth2.client.token.grant.implicit.ImplicitAccessTokenProvider;
+import org.springframework.security.oauth2.client.token.grant.password.ResourceOwnerPasswordAccessTokenProvider;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+
 // todo: https://jfconavarrete.wordpress.com/2014/09/15/make-spring-security-context-available-inside-a-hystrix-command/
 
 // this works because we added @EnableOAuth2Client to the the services
@@ -26,14 +41,22 @@ public class TokenRelayAutoConfiguration {
 
     public static final String SECURE_PROFILE = "secure";
 
+    // like Ribbon's ConnectTimeout and ReadTimeout for Feign, unset waits as long as it takes
+    static ClientHttpRequestFactory requestFactory(Environment environment) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(environment.getProperty("edge.rest-template.connect-timeout-millis", Integer.class, -1));
+        requestFactory.setReadTimeout(environment.getProperty("edge.rest-template.read-timeout-millis", Integer.class, -1));
+        return requestFactory;
+    }
+
     @Configuration
     @Profile("!" + SECURE_PROFILE)
     public static class RestTemplateConfiguration {
 
         @Bean
         @LoadBalanced
-        RestTemplate restTemplate() {
-            return new RestTemplate();
+        RestTemplate restTemplate(Environment environment) {
+            return new RestTemplate(requestFactory(environment));
         }
     }
 
@@ -43,8 +66,10 @@ public class TokenRelayAutoConfiguration {
 
         @Bean
         @LoadBalanced
-        OAuth2RestTemplate restTemplate(UserInfoRestTemplateFactory factory) {
-            return factory.getUserInfoRestTemplate();
+        OAuth2RestTemplate restTemplate(UserInfoRestTemplateFactory factory, Environment environment) {
+            OAuth2RestTemplate restTemplate = factory.getUserInfoRestTemplate();
+            restTemplate.setRequestFactory(requestFactory(environment));
+            return restTemplate;
         }
     }
 
@@ -55,11 +80,25 @@ public class TokenRelayAutoConfiguration {
     public static class FeignAutoConfiguration {
 
         @Bean
-        RequestInterceptor requestInterceptor(OAuth2ClientContext clientContext) {
-            return requestTemplate ->
-                    requestTemplate.header(HttpHeaders.AUTHORIZATION,
-                        clientContext.getAccessToken().getTokenType() +
-                            ' ' + clientContext.getAccessToken().getValue());
+        TokenRelay tokenRelay(OAuth2ClientContext clientContext,
+                              ObjectProvider<OAuth2ProtectedResourceDetails> resource,
+                              ListableBeanFactory beanFactory,
+                              @Value("${edge.relay.refresh-ahead-seconds:30}") long refreshAheadSeconds) {
+            AccessTokenProviderChain accessTokenProvider = new AccessTokenProviderChain(Arrays.asList(
+                    new AuthorizationCodeAccessTokenProvider(), new ImplicitAccessTokenProvider(),
+                    new ResourceOwnerPasswordAccessTokenProvider(), new ClientCredentialsAccessTokenProvider()));
+            return new TokenRelay(clientContext, resource.getIfUnique(), accessTokenProvider,
+                    Counters.forBeanFactory(beanFactory), refreshAheadSeconds);
+        }
+
+        @Bean
+        RequestInterceptor requestInterceptor(TokenRelay tokenRelay) {
+            return requestTemplate -> {
+                String authorization = tokenRelay.authorizationHeader();
+                if (authorization != null) {
+                    requestTemplate.header(HttpHeaders.AUTHORIZATION, authorization);
+                }
+            };
         }
     }
-}
\ No newline at end of file
+}
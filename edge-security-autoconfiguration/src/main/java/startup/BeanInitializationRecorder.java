@@ -0,0 +1,114 @@
+package startup;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.core.io.support.SpringFactoriesLoader;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+// times each bean from instantiation to the end of initialization, minus the time spent creating its dependencies
+class BeanInitializationRecorder extends InstantiationAwareBeanPostProcessorAdapter {
+
+    private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    private final StartupReport report;
+
+    private final Set<String> autoConfigurations;
+
+    private volatile boolean recording = true;
+
+    BeanInitializationRecorder(ConfigurableListableBeanFactory beanFactory, StartupReport report) {
+        this.beanFactory = beanFactory;
+        this.report = report;
+        this.autoConfigurations = new HashSet<>(SpringFactoriesLoader.loadFactoryNames(
+                EnableAutoConfiguration.class, beanFactory.getBeanClassLoader()));
+    }
+
+    // request and session scoped beans keep being created after startup, they aren't of interest
+    void stop() {
+        this.recording = false;
+        this.frames.remove();
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+        if (this.recording) {
+            this.frames.get().push(new Frame(beanName));
+        }
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!this.recording) {
+            return bean;
+        }
+        Deque<Frame> stack = this.frames.get();
+        // objects a FactoryBean makes, and beans that were never instantiated here, have no frame
+        if (!this.isOnStack(stack, beanName)) {
+            return bean;
+        }
+        // beans that failed or skipped initialization leave frames behind
+        while (!stack.peek().beanName.equals(beanName)) {
+            stack.pop();
+        }
+        Frame frame = stack.pop();
+        long total = System.nanoTime() - frame.start;
+        if (!stack.isEmpty()) {
+            stack.peek().children += total;
+        }
+        this.report.record(beanName, this.sourceOf(beanName), total - frame.children, total);
+        return bean;
+    }
+
+    private boolean isOnStack(Deque<Frame> stack, String beanName) {
+        for (Frame frame : stack) {
+            if (frame.beanName.equals(beanName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String sourceOf(String beanName) {
+        if (!this.beanFactory.containsBeanDefinition(beanName)) {
+            return StartupReport.APPLICATION;
+        }
+        BeanDefinition definition = this.beanFactory.getBeanDefinition(beanName);
+        String className = definition.getBeanClassName();
+        if (definition.getFactoryBeanName() != null && this.beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+            className = this.beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+        }
+        if (className == null) {
+            return StartupReport.APPLICATION;
+        }
+        // nested configuration classes are charged to the auto-configuration that declares them
+        String outer = className.contains("$$") ? className.substring(0, className.indexOf("$$")) : className;
+        while (outer.indexOf(ClassUtils.INNER_CLASS_SEPARATOR) > 0 && !this.autoConfigurations.contains(outer)) {
+            outer = outer.substring(0, outer.lastIndexOf(ClassUtils.INNER_CLASS_SEPARATOR));
+        }
+        return this.autoConfigurations.contains(outer) ? outer : StartupReport.APPLICATION;
+    }
+
+    private static class Frame {
+
+        private final String beanName;
+
+        private final long start = System.nanoTime();
+
+        private long children;
+
+        Frame(String beanName) {
+            this.beanName = beanName;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package startup;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerFactory;
+import org.springframework.boot.web.servlet.ServletContextInitializer;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.Lifecycle;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.servlet.Filter;
+import javax.servlet.Servlet;
+import java.util.Arrays;
+import java.util.EventListener;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Marks beans lazy so they are created on first use instead of during startup. Beans
+ * that have to exist to do their job (lifecycle, listeners, filters, runners, scheduled
+ * or event listener methods, the servlet container) stay eager, as does anything
+ * matching {@code startup.lazy-init.excludes}.
+ */
+class LazyInitializationPostProcessor implements BeanFactoryPostProcessor {
+
+    private static final List<Class<?>> EAGER_TYPES = Arrays.asList(
+            Lifecycle.class, ApplicationListener.class, EventListener.class, BeanPostProcessor.class,
+            BeanFactoryPostProcessor.class, Filter.class, Servlet.class, ServletContextInitializer.class,
+            EmbeddedServletContainerFactory.class, CommandLineRunner.class, ApplicationRunner.class);
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final String[] excludes;
+
+    LazyInitializationPostProcessor(String[] excludes) {
+        this.excludes = excludes;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        int deferred = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.isLazyInit() || definition.isAbstract() || !definition.isSingleton()
+                    || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE
+                    || PatternMatchUtils.simpleMatch(this.excludes, name)
+                    || beanFactory.isFactoryBean(name)) {
+                continue;
+            }
+            Class<?> type = beanFactory.getType(name);
+            if (type == null || this.mustBeEager(type)) {
+                continue;
+            }
+            definition.setLazyInit(true);
+            deferred++;
+        }
+        log.info("deferred initialization of " + deferred + " beans");
+    }
+
+    private boolean mustBeEager(Class<?> type) {
+        if (EAGER_TYPES.stream().anyMatch(eager -> eager.isAssignableFrom(type))) {
+            return true;
+        }
+        AtomicBoolean annotated = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(type, method -> annotated.set(true),
+                method -> AnnotationUtils.findAnnotation(method, org.springframework.context.event.EventListener.class) != null
+                        || AnnotationUtils.findAnnotation(method, Scheduled.class) != null);
+        return annotated.get();
+    }
+}
@@ -0,0 +1,26 @@
+package startup;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class StartupEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final StartupReport report;
+
+    StartupEndpoint(StartupReport report) {
+        super("startup");
+        this.report = report;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalMillis", this.report.getTotalMillis());
+        result.put("beans", this.report.getBeanCount());
+        result.put("configurations", this.report.getMillisBySource());
+        result.put("slowestBeans", this.report.getSlowestBeans(50));
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package startup;
+
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registered through {@code spring.factories} so that bean timing starts before the
+ * first bean is created.
+ *
+ * <ul>
+ * <li>{@code startup.report.enabled} records and logs the report</li>
+ * <li>{@code startup.lazy-init.enabled} defers non-critical beans until first use</li>
+ * <li>{@code startup.exit-on-ready} exits once started, for class-data sharing training runs</li>
+ * </ul>
+ */
+public class StartupProfilingInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    public static final String REPORT_BEAN_NAME = "startupReport";
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        ConfigurableEnvironment environment = context.getEnvironment();
+        // the Spring Cloud bootstrap context isn't the application we're interested in
+        if (environment.getPropertySources().contains("bootstrap")) {
+            return;
+        }
+
+        if (environment.getProperty("startup.report.enabled", Boolean.class, false)) {
+            StartupReport report = new StartupReport();
+            BeanInitializationRecorder recorder = new BeanInitializationRecorder(context.getBeanFactory(), report);
+            context.getBeanFactory().registerSingleton(REPORT_BEAN_NAME, report);
+            context.getBeanFactory().addBeanPostProcessor(recorder);
+            int limit = environment.getProperty("startup.report.limit", Integer.class, 20);
+            context.addApplicationListener(event -> {
+                if (event instanceof ContextRefreshedEvent && ((ContextRefreshedEvent) event).getApplicationContext() == context) {
+                    recorder.stop();
+                }
+                else if (event instanceof ApplicationReadyEvent) {
+                    report.ready();
+                    report.log(limit);
+                }
+            });
+        }
+
+        if (environment.getProperty("startup.lazy-init.enabled", Boolean.class, false)) {
+            String[] excludes = StringUtils.commaDelimitedListToStringArray(
+                    environment.getProperty("startup.lazy-init.excludes", ""));
+            context.addBeanFactoryPostProcessor(new LazyInitializationPostProcessor(excludes));
+        }
+
+        if (environment.getProperty("startup.exit-on-ready", Boolean.class, false)) {
+            context.addApplicationListener(event -> {
+                if (event instanceof ApplicationReadyEvent) {
+                    LogFactory.getLog(getClass()).info("startup.exit-on-ready is set, exiting");
+                    System.exit(SpringApplication.exit(context));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package startup;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-bean initialization times, grouped by the auto-configuration (or
+ * {@code application}) that contributed each bean.
+ */
+public class StartupReport {
+
+    static final String APPLICATION = "application";
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final Map<String, BeanTiming> beans = new ConcurrentHashMap<>();
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private volatile long readyAt;
+
+    void record(String beanName, String source, long selfNanos, long totalNanos) {
+        this.beans.put(beanName, new BeanTiming(beanName, source, selfNanos, totalNanos));
+    }
+
+    void ready() {
+        this.readyAt = System.currentTimeMillis();
+    }
+
+    public long getTotalMillis() {
+        return (this.readyAt == 0 ? System.currentTimeMillis() : this.readyAt) - this.startedAt;
+    }
+
+    public List<BeanTiming> getSlowestBeans(int limit) {
+        return this.beans.values().stream()
+                .sorted(Comparator.comparingLong(BeanTiming::getSelfNanos).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    // self time, so a configuration isn't charged for beans it merely depends on
+    public Map<String, Double> getMillisBySource() {
+        Map<String, Long> nanos = this.beans.values().stream()
+                .collect(Collectors.groupingBy(BeanTiming::getSource, Collectors.summingLong(BeanTiming::getSelfNanos)));
+        Map<String, Double> millis = new LinkedHashMap<>();
+        nanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> millis.put(e.getKey(), e.getValue() / 1_000_000d));
+        return millis;
+    }
+
+    public int getBeanCount() {
+        return this.beans.size();
+    }
+
+    void log(int limit) {
+        StringBuilder report = new StringBuilder(String.format(
+                "started in %dms, %d beans initialized%n", this.getTotalMillis(), this.getBeanCount()));
+        report.append("slowest configurations:\n");
+        this.getMillisBySource().entrySet().stream().limit(limit)
+                .forEach(e -> report.append(String.format("  %8.1fms %s%n", e.getValue(), e.getKey())));
+        report.append("slowest beans:\n");
+        this.getSlowestBeans(limit)
+                .forEach(b -> report.append(String.format("  %8.1fms %s (%s)%n", b.getSelfMillis(), b.getName(), b.getSource())));
+        log.info(report);
+    }
+
+    public static class BeanTiming {
+
+        private final String name;
+
+        private final String source;
+
+        private final long selfNanos;
+
+        private final long totalNanos;
+
+        BeanTiming(String name, String source, long selfNanos, long totalNanos) {
+            this.name = name;
+            this.source = source;
+            this.selfNanos = selfNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        long getSelfNanos() {
+            return selfNanos;
+        }
+
+        public double getSelfMillis() {
+            return selfNanos / 1_000_000d;
+        }
+
+        public double getTotalMillis() {
+            return totalNanos / 1_000_000d;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package startup;
+
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnClass(Endpoint.class)
+@ConditionalOnProperty(name = "startup.report.enabled", matchIfMissing = false)
+@ConditionalOnBean(StartupReport.class)
+public class StartupReportAutoConfiguration {
+
+    @Bean
+    StartupEndpoint startupEndpoint(StartupReport startupReport) {
+        return new StartupEndpoint(startupReport);
+    }
+}
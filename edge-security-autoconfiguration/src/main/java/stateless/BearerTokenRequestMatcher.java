@@ -0,0 +1,21 @@
+package stateless;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Matches API calls made with a bearer token, the traffic that authenticates on every
+ * request and has no use for a session, a CSRF token or cookies.
+ */
+public class BearerTokenRequestMatcher implements RequestMatcher {
+
+    private static final String BEARER = "bearer ";
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length());
+    }
+}
@@ -0,0 +1,25 @@
+package stateless;
+
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionListener;
+import java.util.function.Consumer;
+
+// every session the container creates, so stray ones on API paths show up in /metrics
+class SessionCounter implements HttpSessionListener {
+
+    private final Consumer<String> counters;
+
+    SessionCounter(Consumer<String> counters) {
+        this.counters = counters;
+    }
+
+    @Override
+    public void sessionCreated(HttpSessionEvent event) {
+        this.counters.accept("sessions.created");
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        this.counters.accept("sessions.destroyed");
+    }
+}
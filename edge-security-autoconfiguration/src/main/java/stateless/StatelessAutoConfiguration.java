@@ -0,0 +1,42 @@
+package stateless;
+
+import metrics.Counters;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletListenerRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * Keeps bearer token traffic from creating sessions, and counts the sessions that are
+ * created. The services' security configurations do their part by sending
+ * {@link BearerTokenRequestMatcher bearer requests} through stateless chains without CSRF.
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "edge.stateless.enabled", matchIfMissing = true)
+public class StatelessAutoConfiguration {
+
+    @Bean
+    ServletListenerRegistrationBean<SessionCounter> sessionCounter(ListableBeanFactory beanFactory) {
+        return new ServletListenerRegistrationBean<>(new SessionCounter(Counters.forBeanFactory(beanFactory)));
+    }
+
+    @Configuration
+    @ConditionalOnClass(RequestMatcher.class)
+    public static class StatelessRequestConfiguration {
+
+        // inside Spring Session's wrapper, outside the RequestContextFilter that session scope looks up
+        @Bean
+        FilterRegistrationBean statelessRequestFilter() {
+            FilterRegistrationBean registration = new FilterRegistrationBean(new StatelessRequestFilter());
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+            return registration;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package stateless;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+
+/**
+ * Gives bearer token requests a {@link TransientSession} in place of the container's.
+ * Session scoped beans, like the {@code OAuth2ClientContext} a resource server checks
+ * and relays the token with, still work for the length of the request, but nothing is
+ * kept on the heap after it and no session cookie goes out.
+ */
+class StatelessRequestFilter extends OncePerRequestFilter {
+
+    private final BearerTokenRequestMatcher matcher = new BearerTokenRequestMatcher();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !this.matcher.matches(request);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(new StatelessRequest(request), response);
+    }
+
+    private static class StatelessRequest extends HttpServletRequestWrapper {
+
+        private TransientSession session;
+
+        StatelessRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public synchronized HttpSession getSession(boolean create) {
+            if ((this.session == null || this.session.isInvalid()) && create) {
+                this.session = new TransientSession(this.getServletContext());
+            }
+            return this.session == null || this.session.isInvalid() ? null : this.session;
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return this.getSession(true);
+        }
+
+        @Override
+        public String changeSessionId() {
+            HttpSession session = this.getSession(false);
+            if (session == null) {
+                throw new IllegalStateException("no session to change the id of");
+            }
+            return session.getId();
+        }
+
+        @Override
+        public String getRequestedSessionId() {
+            return null;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdValid() {
+            return false;
+        }
+
+        @Override
+        public boolean isRequestedSessionIdFromCookie() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package stateless;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionContext;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// a session that lives and dies with one request, the container never hears of it
+@SuppressWarnings("deprecation")
+class TransientSession implements HttpSession {
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final long creationTime = System.currentTimeMillis();
+
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    private final ServletContext servletContext;
+
+    private volatile boolean invalid;
+
+    TransientSession(ServletContext servletContext) {
+        this.servletContext = servletContext;
+    }
+
+    boolean isInvalid() {
+        return this.invalid;
+    }
+
+    @Override
+    public long getCreationTime() {
+        return this.creationTime;
+    }
+
+    @Override
+    public String getId() {
+        return this.id;
+    }
+
+    @Override
+    public long getLastAccessedTime() {
+        return this.creationTime;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return this.servletContext;
+    }
+
+    @Override
+    public void setMaxInactiveInterval(int interval) {
+    }
+
+    @Override
+    public int getMaxInactiveInterval() {
+        return 0;
+    }
+
+    @Override
+    public HttpSessionContext getSessionContext() {
+        return null;
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return this.attributes.get(name);
+    }
+
+    @Override
+    public Object getValue(String name) {
+        return this.getAttribute(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(this.attributes.keySet());
+    }
+
+    @Override
+    public String[] getValueNames() {
+        return this.attributes.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        if (value == null) {
+            this.attributes.remove(name);
+        }
+        else {
+            this.attributes.put(name, value);
+        }
+    }
+
+    @Override
+    public void putValue(String name, Object value) {
+        this.setAttribute(name, value);
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        this.attributes.remove(name);
+    }
+
+    @Override
+    public void removeValue(String name) {
+        this.removeAttribute(name);
+    }
+
+    @Override
+    public void invalidate() {
+        this.invalid = true;
+        this.attributes.clear();
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
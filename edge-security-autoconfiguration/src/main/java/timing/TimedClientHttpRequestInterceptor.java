@@ -0,0 +1,27 @@
+package timing;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+// times RestTemplate calls (the userInfoUri token check included) by target host, Ribbon selection included
+class TimedClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Timings timings = Timings.current();
+        if (timings == null) {
+            return execution.execute(request, body);
+        }
+        request.getHeaders().set(Timings.TRACE_ID_HEADER, timings.getTraceId());
+        long start = System.nanoTime();
+        ClientHttpResponse response = execution.execute(request, body);
+        timings.stage("http." + request.getURI().getHost(), System.nanoTime() - start);
+        timings.hops(response.getHeaders().getFirst(Timings.HOP_TIMING_HEADER));
+        return response;
+    }
+}
@@ -0,0 +1,37 @@
+package timing;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Map;
+
+// times Feign calls by target service, Ribbon selection included
+class TimedFeignClient implements Client {
+
+    private final Client delegate;
+
+    TimedFeignClient(Client delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        Timings timings = Timings.current();
+        if (timings == null) {
+            return this.delegate.execute(request, options);
+        }
+        long start = System.nanoTime();
+        Response response = this.delegate.execute(request, options);
+        timings.stage("feign." + URI.create(request.url()).getHost(), System.nanoTime() - start);
+        for (Map.Entry<String, Collection<String>> header : response.headers().entrySet()) {
+            if (Timings.HOP_TIMING_HEADER.equalsIgnoreCase(header.getKey())) {
+                header.getValue().forEach(timings::hops);
+            }
+        }
+        return response;
+    }
+}
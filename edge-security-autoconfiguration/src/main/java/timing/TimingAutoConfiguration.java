@@ -0,0 +1,141 @@
+package timing;
+
+import feign.Client;
+import feign.RequestInterceptor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.UserInfoRestTemplateCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.security.oauth2.client.OAuth2RestTemplate;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * Per-hop timings without a tracing backend. Each service times its filters, handler and
+ * outbound Feign and {@code RestTemplate} calls, and reports them (with its callees'
+ * timings) in {@link Timings#HOP_TIMING_HEADER}. The service with
+ * {@code edge.timing.server-timing=true} reports the lot as {@code Server-Timing}.
+ * {@link Timings#TRACE_ID_HEADER} ties the hops together, and a sample of requests
+ * ({@code edge.timing.log-sample-rate}) is logged.
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(name = "edge.timing.enabled", matchIfMissing = true)
+public class TimingAutoConfiguration {
+
+    // outside everything else, shed and rejected requests are timed too
+    @Bean
+    FilterRegistrationBean timingFilter(@Value("${spring.application.name:application}") String service,
+                                        @Value("${edge.timing.server-timing:false}") boolean serverTiming,
+                                        @Value("${edge.timing.log-sample-rate:0}") double logSampleRate) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new TimingFilter(service, serverTiming, logSampleRate));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    WebMvcConfigurerAdapter timingHandlerInterceptor() {
+        return new WebMvcConfigurerAdapter() {
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new HandlerInterceptorAdapter() {
+
+                    @Override
+                    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                        if (request.getAttribute(TimingFilter.HANDLER_START_ATTRIBUTE) == null) {
+                            request.setAttribute(TimingFilter.HANDLER_START_ATTRIBUTE, System.nanoTime());
+                        }
+                        return true;
+                    }
+                });
+            }
+        };
+    }
+
+    @Bean
+    static BeanPostProcessor timingRestTemplatePostProcessor() {
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RestTemplate) {
+                    addTimingInterceptor(RestTemplate.class.cast(bean));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void addTimingInterceptor(RestTemplate restTemplate) {
+        List<ClientHttpRequestInterceptor> interceptors = restTemplate.getInterceptors();
+        if (interceptors.stream().noneMatch(TimedClientHttpRequestInterceptor.class::isInstance)) {
+            interceptors.add(new TimedClientHttpRequestInterceptor());
+        }
+    }
+
+    // the userInfoUri token check isn't always done through a RestTemplate bean
+    @Configuration
+    @ConditionalOnClass(OAuth2RestTemplate.class)
+    public static class UserInfoTimingConfiguration {
+
+        @Bean
+        UserInfoRestTemplateCustomizer timingUserInfoRestTemplateCustomizer() {
+            return TimingAutoConfiguration::addTimingInterceptor;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(Client.class)
+    public static class FeignTimingConfiguration {
+
+        @Bean
+        RequestInterceptor traceIdRequestInterceptor() {
+            return requestTemplate -> {
+                Timings timings = Timings.current();
+                if (timings != null) {
+                    requestTemplate.header(Timings.TRACE_ID_HEADER, timings.getTraceId());
+                }
+            };
+        }
+
+        @Bean
+        static BeanPostProcessor timingFeignClientPostProcessor() {
+            return new BeanPostProcessor() {
+
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                    return bean;
+                }
+
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                    if (bean instanceof Client && !(bean instanceof TimedFeignClient)) {
+                        return new TimedFeignClient(Client.class.cast(bean));
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package timing;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the clock and the trace for each request, and writes the timings into the
+ * response headers just before the response is committed. The edge writes them as
+ * {@code Server-Timing} for the browser. Other services write them as
+ * {@link Timings#HOP_TIMING_HEADER} for their caller.
+ */
+class TimingFilter extends OncePerRequestFilter {
+
+    static final String HANDLER_START_ATTRIBUTE = TimingFilter.class.getName() + ".handlerStart";
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final String service;
+
+    private final boolean serverTiming;
+
+    private final double logSampleRate;
+
+    TimingFilter(String service, boolean serverTiming, double logSampleRate) {
+        this.service = service;
+        this.serverTiming = serverTiming;
+        this.logSampleRate = logSampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        String traceId = request.getHeader(Timings.TRACE_ID_HEADER);
+        Timings timings = new Timings(traceId == null || traceId.isEmpty() ? Timings.newTraceId() : traceId, this.service);
+        request.setAttribute(Timings.ATTRIBUTE, timings);
+        TimedResponse timedResponse = new TimedResponse(request, response, timings, start);
+        try {
+            filterChain.doFilter(request, timedResponse);
+        }
+        finally {
+            if (!request.isAsyncStarted()) {
+                timedResponse.beforeCommit();
+            }
+        }
+    }
+
+    private class TimedResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+
+        private final Timings timings;
+
+        private final long start;
+
+        private boolean written;
+
+        TimedResponse(HttpServletRequest request, HttpServletResponse response, Timings timings, long start) {
+            super(response);
+            this.request = request;
+            this.timings = timings;
+            this.start = start;
+        }
+
+        // the handler is done by the time anything writes the body, so the timings are complete
+        synchronized void beforeCommit() {
+            if (this.written || this.isCommitted()) {
+                return;
+            }
+            this.written = true;
+            long now = System.nanoTime();
+            Object handlerStart = this.request.getAttribute(HANDLER_START_ATTRIBUTE);
+            if (handlerStart != null) {
+                this.timings.stage("filters", (Long) handlerStart - this.start);
+                this.timings.stage("handler", now - (Long) handlerStart);
+            }
+            this.timings.stage("total", now - this.start);
+            this.setHeader(Timings.TRACE_ID_HEADER, this.timings.getTraceId());
+            this.setHeader(serverTiming ? Timings.SERVER_TIMING_HEADER : Timings.HOP_TIMING_HEADER, this.timings.header());
+            if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+                log.info(this.request.getMethod() + " " + this.request.getRequestURI() + " " + this.getStatus()
+                        + " " + this.timings);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            this.beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            this.beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            this.beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            this.beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            this.beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            this.beforeCommit();
+            super.sendRedirect(location);
+        }
+    }
+}
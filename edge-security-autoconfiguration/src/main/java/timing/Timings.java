@@ -0,0 +1,88 @@
+package timing;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Stage timings for one request: this service's own stages plus whatever the services
+ * it called reported in their {@link #HOP_TIMING_HEADER}. Entries use the
+ * {@code Server-Timing} syntax, {@code name;dur=millis}, so the edge can pass them on
+ * to the browser unchanged.
+ */
+public class Timings {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    public static final String HOP_TIMING_HEADER = "X-Hop-Timing";
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    static final String ATTRIBUTE = Timings.class.getName();
+
+    // keeps the header small however many calls a request fans out to
+    private static final int MAX_ENTRIES = 32;
+
+    private final String traceId;
+
+    private final String service;
+
+    private final List<String> entries = new ArrayList<>();
+
+    Timings(String traceId, String service) {
+        this.traceId = traceId;
+        this.service = service;
+    }
+
+    /**
+     * @return the current request's timings, or null outside of a request
+     */
+    public static Timings current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null : (Timings) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    static String newTraceId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+    }
+
+    public String getTraceId() {
+        return this.traceId;
+    }
+
+    public void stage(String name, long nanos) {
+        this.add(String.format(Locale.ROOT, "%s.%s;dur=%.1f", this.service, name, nanos / 1_000_000d));
+    }
+
+    // timings reported by a downstream service, passed on as they are
+    public void hops(String header) {
+        if (header == null || header.isEmpty()) {
+            return;
+        }
+        for (String entry : header.split(",")) {
+            String trimmed = entry.trim();
+            if (!trimmed.isEmpty()) {
+                this.add(trimmed);
+            }
+        }
+    }
+
+    public synchronized String header() {
+        return String.join(", ", this.entries);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "trace " + this.traceId + ": " + String.join(" ", this.entries);
+    }
+
+    private synchronized void add(String entry) {
+        if (this.entries.size() < MAX_ENTRIES) {
+            this.entries.add(entry);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package codec;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BinaryCodecTests {
+
+    @Test
+    public void clientsAskForSmileButOnlyWriteItWhenTold() {
+        RestTemplate restTemplate = new RestTemplate();
+        BinaryCodec.preferBinary(restTemplate);
+        BinaryCodec.preferBinary(restTemplate);
+        HttpMessageConverter<?> first = restTemplate.getMessageConverters().get(0);
+        assertEquals(1, restTemplate.getMessageConverters().stream().filter(first.getClass()::isInstance).count());
+        assertTrue(first.canRead(Map.class, BinaryCodec.MEDIA_TYPE));
+        assertFalse(first.canWrite(Map.class, null));
+        assertTrue(first.canWrite(Map.class, BinaryCodec.MEDIA_TYPE));
+    }
+
+    // the greetings-service response and an auth-service /user principal, the harness's codec scenario times them
+    @Test
+    @SuppressWarnings("unchecked")
+    public void roundTripsPayloadsAndShrinksThePrincipal() throws IOException {
+        HttpMessageConverter<Object> json = new MappingJackson2HttpMessageConverter();
+        HttpMessageConverter<Object> smile = BinaryCodec.serverConverter();
+        Map<String, Object> principal = principal();
+
+        for (Object payload : Arrays.asList(Collections.singletonMap("greeting", "Hello, jlong!"), principal)) {
+            byte[] jsonBytes = write(json, payload, MediaType.APPLICATION_JSON);
+            byte[] smileBytes = write(smile, payload, BinaryCodec.MEDIA_TYPE);
+            assertEquals(payload, read(json, jsonBytes, MediaType.APPLICATION_JSON));
+            assertEquals(payload, read(smile, smileBytes, BinaryCodec.MEDIA_TYPE));
+            if (payload == principal) {
+                assertTrue(smileBytes.length < jsonBytes.length);
+            }
+        }
+    }
+
+    private static byte[] write(HttpMessageConverter<Object> converter, Object value, MediaType mediaType) throws IOException {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(value, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+
+    private static Object read(HttpMessageConverter<Object> converter, byte[] bytes, MediaType mediaType) throws IOException {
+        MockHttpInputMessage input = new MockHttpInputMessage(bytes);
+        input.getHeaders().set(HttpHeaders.CONTENT_TYPE, mediaType.toString());
+        return converter.read((Class) Map.class, input);
+    }
+
+    // roughly what OAuth2Authentication looks like once serialized
+    private static Map<String, Object> principal() {
+        List<Map<String, Object>> authorities = new ArrayList<>();
+        for (String authority : Arrays.asList("ROLE_USER", "ROLE_ADMIN")) {
+            authorities.add(Collections.singletonMap("authority", authority));
+        }
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("clientId", "html5");
+        request.put("scope", Arrays.asList("openid"));
+        request.put("requestParameters", Collections.singletonMap("grant_type", "authorization_code"));
+        request.put("resourceIds", Collections.emptyList());
+        request.put("authorities", authorities);
+        request.put("approved", true);
+        request.put("refresh", false);
+        request.put("redirectUri", "http://localhost:8082/login");
+        request.put("responseTypes", Arrays.asList("code"));
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("remoteAddress", "127.0.0.1");
+        details.put("sessionId", null);
+        details.put("tokenValue", UUID.randomUUID().toString());
+        details.put("tokenType", "Bearer");
+        details.put("decodedDetails", null);
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("password", null);
+        user.put("username", "jlong");
+        user.put("authorities", authorities);
+        user.put("accountNonExpired", true);
+        user.put("accountNonLocked", true);
+        user.put("credentialsNonExpired", true);
+        user.put("enabled", true);
+        Map<String, Object> principal = new LinkedHashMap<>();
+        principal.put("authorities", authorities);
+        principal.put("details", details);
+        principal.put("authenticated", true);
+        principal.put("userAuthentication", Collections.singletonMap("principal", user));
+        principal.put("principal", user);
+        principal.put("oauth2Request", request);
+        principal.put("clientOnly", false);
+        principal.put("credentials", "");
+        principal.put("name", "jlong");
+        return principal;
+    }
+}
@@ -0,0 +1,58 @@
+package deadline;
+
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DeadlineTests {
+
+    private final List<String> counters = new ArrayList<>();
+
+    @Test
+    public void shedsRequestsArrivingWithLessThanTheMinimum() throws Exception {
+        DeadlineFilter filter = new DeadlineFilter(0, 10, this.counters::add);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greet/world");
+        request.addHeader(Deadline.HEADER, "5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertNull(chain.getRequest());
+        assertEquals("deadline.shed.inbound", this.counters.get(0));
+    }
+
+    @Test
+    public void shedsRequestsWhoseDeadlinePassedWhileTheyWaited() throws Exception {
+        DeadlineInterceptor interceptor = new DeadlineInterceptor(10, this.counters::add);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greet/world");
+        Deadline.set(request, 50);
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+
+        Deadline.set(request, 5);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request, response, null));
+        assertEquals(503, response.getStatus());
+        assertEquals("deadline.shed.handler", this.counters.get(0));
+    }
+
+    @Test
+    public void answersSkippedCallsWithAGatewayTimeout() {
+        DeadlineExceededResolver resolver = new DeadlineExceededResolver();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HystrixRuntimeException wrapped = new HystrixRuntimeException(HystrixRuntimeException.FailureType.COMMAND_EXCEPTION,
+                null, "greet failed", new DeadlineExceededException("http://greetings-service/greet/world"), null);
+        assertNotNull(resolver.resolveException(new MockHttpServletRequest(), response, null, wrapped));
+        assertEquals(504, response.getStatus());
+
+        assertNull(resolver.resolveException(new MockHttpServletRequest(), new MockHttpServletResponse(), null,
+                new IllegalStateException()));
+    }
+}
@@ -0,0 +1,44 @@
+package drain;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
+import static org.junit.Assert.assertEquals;
+
+public class InFlightFilterTests {
+
+    private final InFlightFilter filter = new InFlightFilter();
+
+    @Test
+    public void countsAsyncRequestsUntilTheyComplete() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greet/world");
+        request.setAsyncSupported(true);
+        AsyncContext[] asyncContext = new AsyncContext[1];
+        this.filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> asyncContext[0] = req.startAsync());
+
+        assertEquals(1, this.filter.getInFlight());
+        asyncContext[0].complete();
+        assertEquals(0, this.filter.getInFlight());
+    }
+
+    // the handed-off work finishing before the filter chain has even returned
+    @Test
+    public void countsAsyncRequestsThatCompleteBeforeTheChainReturns() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greet/world");
+        request.setAsyncSupported(true);
+        this.filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            MockAsyncContext asyncContext = (MockAsyncContext) req.startAsync();
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onComplete(new AsyncEvent(asyncContext));
+            }
+        });
+
+        assertEquals(0, this.filter.getInFlight());
+    }
+}
@@ -0,0 +1,170 @@
+package relay;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.client.resource.OAuth2ProtectedResourceDetails;
+import org.springframework.security.oauth2.client.token.AccessTokenProvider;
+import org.springframework.security.oauth2.client.token.AccessTokenRequest;
+import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeResourceDetails;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TokenRelayTests {
+
+    private final OAuth2ClientContext clientContext = new DefaultOAuth2ClientContext();
+
+    private final OAuth2ProtectedResourceDetails resource = new AuthorizationCodeResourceDetails();
+
+    private final CountingAccessTokenProvider accessTokenProvider = new CountingAccessTokenProvider();
+
+    private final TokenRelay relay = new TokenRelay(this.clientContext, this.resource, this.accessTokenProvider,
+            metric -> {
+            }, 30);
+
+    @After
+    public void destroy() {
+        this.relay.destroy();
+    }
+
+    @Test
+    public void refreshesOnlyTokensRelayedWithinTheRefreshAheadWindow() throws Exception {
+        this.clientContext.setAccessToken(token("later", 3_600_000));
+        assertEquals("bearer later", this.relay.authorizationHeader());
+
+        this.accessTokenProvider.next.add(token("refreshed", 3_600_000));
+        this.clientContext.setAccessToken(token("soon", 10_000));
+        // the old token is still good, so it is relayed while the refresh runs
+        assertEquals("bearer soon", this.relay.authorizationHeader());
+        String header = this.relay.authorizationHeader();
+        for (int i = 0; i < 100 && !"bearer refreshed".equals(header); i++) {
+            Thread.sleep(20);
+            header = this.relay.authorizationHeader();
+        }
+        assertEquals("bearer refreshed", header);
+        assertEquals("refreshed", this.clientContext.getAccessToken().getValue());
+        assertEquals(1, this.accessTokenProvider.refreshes.get());
+    }
+
+    @Test
+    public void sharesOneRefreshBetweenConcurrentCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        this.accessTokenProvider.release = release;
+        this.accessTokenProvider.next.add(token("refreshed", 3_600_000));
+        this.clientContext.setAccessToken(token("expired", -1000));
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> headers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                headers.add(callers.submit(this.relay::authorizationHeader));
+            }
+            assertTrue(this.accessTokenProvider.started.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            for (Future<String> header : headers) {
+                assertEquals("bearer refreshed", header.get(5, TimeUnit.SECONDS));
+            }
+        }
+        finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, this.accessTokenProvider.refreshes.get());
+    }
+
+    @Test
+    public void retriesAFailedRefresh() throws Exception {
+        this.accessTokenProvider.next.add(new IllegalStateException("auth-service is down"));
+        this.accessTokenProvider.next.add(token("refreshed", 3_600_000));
+        this.relay.setRetryMillis(10);
+        this.clientContext.setAccessToken(token("expired", -1000));
+
+        String header = this.relay.authorizationHeader();
+        for (int i = 0; i < 100 && !"bearer refreshed".equals(header); i++) {
+            Thread.sleep(20);
+            header = this.relay.authorizationHeader();
+        }
+        assertEquals("bearer refreshed", header);
+        assertEquals(2, this.accessTokenProvider.refreshes.get());
+    }
+
+    @Test
+    public void sweepsExpiredTokens() {
+        for (int i = 0; i < 10; i++) {
+            DefaultOAuth2AccessToken expired = new DefaultOAuth2AccessToken("expired-" + i);
+            expired.setExpiration(new Date(System.currentTimeMillis() - 1000));
+            this.clientContext.setAccessToken(expired);
+            this.relay.authorizationHeader();
+        }
+        this.clientContext.setAccessToken(token("live", 3_600_000));
+        this.relay.authorizationHeader();
+        assertEquals(11, this.relay.size());
+
+        this.relay.sweep();
+        assertEquals(1, this.relay.size());
+    }
+
+    private static DefaultOAuth2AccessToken token(String value, long expiresInMillis) {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(value);
+        token.setExpiration(new Date(System.currentTimeMillis() + expiresInMillis));
+        token.setRefreshToken(new DefaultOAuth2RefreshToken("refresh"));
+        return token;
+    }
+
+    // answers refreshes from next, in order, once release (if any) is counted down
+    private static class CountingAccessTokenProvider implements AccessTokenProvider {
+
+        private final BlockingQueue<Object> next = new LinkedBlockingQueue<>();
+
+        private final AtomicInteger refreshes = new AtomicInteger();
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private volatile CountDownLatch release;
+
+        @Override
+        public OAuth2AccessToken refreshAccessToken(OAuth2ProtectedResourceDetails resource,
+                                                    OAuth2RefreshToken refreshToken, AccessTokenRequest request) {
+            this.refreshes.incrementAndGet();
+            this.started.countDown();
+            try {
+                if (this.release != null) {
+                    this.release.await();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Object answer = this.next.poll();
+            if (answer instanceof RuntimeException) {
+                throw (RuntimeException) answer;
+            }
+            return (OAuth2AccessToken) answer;
+        }
+
+        @Override
+        public OAuth2AccessToken obtainAccessToken(OAuth2ProtectedResourceDetails details, AccessTokenRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean supportsResource(OAuth2ProtectedResourceDetails resource) {
+            return true;
+        }
+
+        @Override
+        public boolean supportsRefresh(OAuth2ProtectedResourceDetails resource) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package stateless;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+import static org.junit.Assert.*;
+
+public class StatelessRequestFilterTests {
+
+    private final StatelessRequestFilter filter = new StatelessRequestFilter();
+
+    @Test
+    public void bearerRequestsOnlyEverGetATransientSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/feign/world");
+        request.addHeader("Authorization", "Bearer 1234");
+        MockFilterChain chain = new MockFilterChain();
+        this.filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        HttpServletRequest filtered = (HttpServletRequest) chain.getRequest();
+        assertNull(filtered.getSession(false));
+        HttpSession session = filtered.getSession();
+        session.setAttribute("scopedTarget.oauth2ClientContext", "context");
+        assertSame(session, filtered.getSession(false));
+        assertEquals("context", filtered.getSession().getAttribute("scopedTarget.oauth2ClientContext"));
+        assertNull(request.getSession(false));
+
+        session.invalidate();
+        assertNull(filtered.getSession(false));
+    }
+
+    @Test
+    public void otherRequestsKeepTheContainersSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/feign/world");
+        request.addHeader("Authorization", "Basic aHRtbDU6c2VjcmV0");
+        MockFilterChain chain = new MockFilterChain();
+        this.filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertSame(request, chain.getRequest());
+    }
+}
@@ -1,11 +1,14 @@
 package greetings;
 
-import com.google.common.util.concurrent.RateLimiter;
 import com.netflix.zuul.ZuulFilter;
 import com.netflix.zuul.context.RequestContext;
 import com.netflix.zuul.exception.ZuulException;
+import deadline.Deadline;
+import execution.ContextPropagatingTaskExecutor;
+import greetings.quota.Throttle;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -33,6 +36,9 @@ import org.springframework.security.config.annotation.web.configuration.WebSecur
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
@@ -41,6 +47,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestTemplate;
+import stateless.BearerTokenRequestMatcher;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
@@ -48,9 +55,12 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.net.URI;
 import java.security.Principal;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 //import org.springframework.security.oauth2.client.OAuth2ClientContext;
 //import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
@@ -71,9 +81,20 @@ public class GreetingsClientApplication {
 @EnableResourceServer
 class ResourceConfiguration extends ResourceServerConfigurerAdapter {
 
+    private final boolean stateless;
+
+    @Autowired
+    ResourceConfiguration(@Value("${edge.stateless.enabled:true}") boolean stateless) {
+        this.stateless = stateless;
+    }
+
     @Override
     public void configure(HttpSecurity http) throws Exception {
-        http.antMatcher("/api/**").authorizeRequests().anyRequest().authenticated();
+        // @EnableResourceServer already makes this chain STATELESS, without CSRF. /api/** stays
+        // bearer-only, a browser with just its session cookie still gets a 401 there
+        RequestMatcher api = new AntPathRequestMatcher("/api/**");
+        http.requestMatcher(this.stateless ? new OrRequestMatcher(new BearerTokenRequestMatcher(), api) : api)
+                .authorizeRequests().anyRequest().authenticated();
     }
 }
 
@@ -171,11 +192,6 @@ class ZuulConfiguration {
     CommandLineRunner commandLineRunner(RouteLocator routeLocator) {
         return args -> routeLocator.getRoutes().forEach(r -> LogFactory.getLog(getClass()).info(r.toString()));
     }
-
-    @Bean
-    RateLimiter rateLimiter() {
-        return RateLimiter.create(1.0D / 10.0D);
-    }
 }
 
 
@@ -185,11 +201,11 @@ class ThrottlingZuulFilter extends ZuulFilter {
 
     private final HttpStatus tooManyRequests = HttpStatus.TOO_MANY_REQUESTS;
 
-    private final RateLimiter rateLimiter;
+    private final Throttle throttle;
 
     @Autowired
-    public ThrottlingZuulFilter(RateLimiter rateLimiter) {
-        this.rateLimiter = rateLimiter;
+    public ThrottlingZuulFilter(Throttle throttle) {
+        this.throttle = throttle;
     }
 
     @Override
@@ -213,7 +229,7 @@ class ThrottlingZuulFilter extends ZuulFilter {
             RequestContext currentContext = RequestContext.getCurrentContext();
             HttpServletResponse response = currentContext.getResponse();
 
-            if (!rateLimiter.tryAcquire()) {
+            if (!throttle.tryAcquire()) {
 
                 response.setContentType(MediaType.TEXT_PLAIN_VALUE);
                 response.setStatus(this.tooManyRequests.value());
@@ -245,11 +261,17 @@ class GreetingsClientApiGateway {
 
     private final GreetingsClient greetingsClient;
     private final RestTemplate restTemplate;
+    private final ContextPropagatingTaskExecutor outboundExecutor;
+    private final long compositeTimeoutMillis;
 
     @Autowired
-    GreetingsClientApiGateway(GreetingsClient greetingsClient, RestTemplate restTemplate) {
+    GreetingsClientApiGateway(GreetingsClient greetingsClient, RestTemplate restTemplate,
+                              ContextPropagatingTaskExecutor outboundExecutor,
+                              @Value("${edge.composite.timeout-millis:2000}") long compositeTimeoutMillis) {
         this.greetingsClient = greetingsClient;
         this.restTemplate = restTemplate;
+        this.outboundExecutor = outboundExecutor;
+        this.compositeTimeoutMillis = compositeTimeoutMillis;
     }
 
     @RequestMapping(method = RequestMethod.GET, value = "/feign/{name}")
@@ -268,6 +290,60 @@ class GreetingsClientApiGateway {
                 "http://greetings-service/greet/{name}", HttpMethod.GET, null, type, name)
                 .getBody();
     }
+
+    // everything the page needs in one round trip, the calls made in parallel on the outboundExecutor
+    @RequestMapping(method = RequestMethod.GET, value = "/composite/{name}")
+    Map<String, Object> composite(@PathVariable String name, Principal principal, HttpServletRequest request)
+            throws InterruptedException {
+        // the calls forward this budget, and their clients' own timeouts stop the ones we stop waiting for
+        Deadline.restrict(request, this.compositeTimeoutMillis);
+        long timeout = Math.max(0, Deadline.remainingMillis());
+        AtomicBoolean answered = new AtomicBoolean();
+        Map<String, CompletableFuture<Map<String, String>>> calls = new LinkedHashMap<>();
+        calls.put("feign", this.call(answered, () -> this.feign(name)));
+        calls.put("restTemplate", this.call(answered, () -> this.restTemplate(name)));
+
+        try {
+            CompletableFuture.allOf(calls.values().toArray(new CompletableFuture[calls.size()]))
+                    .get(timeout, TimeUnit.MILLISECONDS);
+        }
+        catch (ExecutionException | TimeoutException e) {
+            // reported per call below
+        }
+        finally {
+            answered.set(true);
+        }
+
+        Map<String, Object> composite = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        composite.put("user", principal == null ? null : principal.getName());
+        calls.forEach((call, future) -> {
+            if (!future.isDone()) {
+                errors.put(call, "timed out after " + timeout + " ms");
+            }
+            else {
+                try {
+                    composite.put(call, future.join());
+                }
+                catch (CompletionException e) {
+                    errors.put(call, String.valueOf(e.getCause()));
+                }
+            }
+        });
+        composite.put("partial", !errors.isEmpty());
+        composite.put("errors", errors);
+        return composite;
+    }
+
+    // a call still queued once the composite has answered would run against a request that's gone
+    private CompletableFuture<Map<String, String>> call(AtomicBoolean answered, Supplier<Map<String, String>> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (answered.get()) {
+                throw new CancellationException("the composite has answered without it");
+            }
+            return call.get();
+        }, this.outboundExecutor);
+    }
 }
 
 @FeignClient(serviceId = "greetings-service")
@@ -0,0 +1,34 @@
+package greetings.admission;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// bulkheads per route and fair shares per tenant in front of the one servlet thread pool
+@Configuration
+@ConditionalOnProperty("edge.admission.enabled")
+public class AdmissionConfiguration {
+
+    @Bean
+    @ConfigurationProperties("edge.admission")
+    AdmissionProperties admissionProperties() {
+        return new AdmissionProperties();
+    }
+
+    // after Spring Security, so that the OAuth2 client_id is known
+    @Bean
+    FilterRegistrationBean admissionFilter(AdmissionProperties properties,
+                                           ObjectProvider<GaugeService> gaugeService,
+                                           ObjectProvider<CounterService> counterService) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new AdmissionFilter(properties, gaugeService.getIfAvailable(), counterService.getIfAvailable()));
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 10);
+        return registration;
+    }
+}
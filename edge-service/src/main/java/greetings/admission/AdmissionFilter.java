@@ -0,0 +1,212 @@
+package greetings.admission;
+
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admits each request through its route's bulkhead and then through the tenant's
+ * {@link FairAdmission weighted fair queue}. The tenant is the OAuth2 client_id of the
+ * caller. Requests that aren't authenticated all share the anonymous tenant, whatever
+ * they claim to be.
+ */
+class AdmissionFilter extends OncePerRequestFilter {
+
+    static final String ANONYMOUS = "anonymous", OTHER = "other";
+
+    private final FairAdmission admission;
+
+    private final Map<String, Semaphore> routes = new LinkedHashMap<>();
+
+    private final AdmissionProperties properties;
+
+    private final GaugeService gaugeService;
+
+    private final CounterService counterService;
+
+    AdmissionFilter(AdmissionProperties properties, GaugeService gaugeService, CounterService counterService) {
+        this.properties = properties;
+        this.gaugeService = gaugeService;
+        this.counterService = counterService;
+        this.admission = new FairAdmission(properties.getCapacity(), properties.getMaxQueueDepth(),
+                tenant -> properties.getWeights().getOrDefault(tenant, 1));
+        properties.getRoutes().forEach((prefix, limit) -> this.routes.put(prefix, new Semaphore(limit)));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Semaphore route = this.route(request.getRequestURI().substring(request.getContextPath().length()));
+        if (route != null && !route.tryAcquire()) {
+            this.count("admission.route.rejected");
+            this.reject(response, HttpStatus.SERVICE_UNAVAILABLE);
+            return;
+        }
+        FairAdmission.Tenant tenant = null;
+        Release release = null;
+        try {
+            tenant = this.admission.acquire(this.tenant(), this.properties.getQueueTimeoutMillis());
+            if (tenant == null) {
+                this.count("admission.tenant.rejected");
+                this.reject(response, HttpStatus.TOO_MANY_REQUESTS);
+                return;
+            }
+            this.report(tenant);
+            release = new Release(route, tenant);
+            filterChain.doFilter(new AsyncListening(request, release), response);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.reject(response, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        finally {
+            if (release == null) {
+                this.release(route, tenant);
+            }
+            else if (!request.isAsyncStarted()) {
+                release.release();
+            }
+        }
+    }
+
+    Map<String, FairAdmission.Tenant> getTenants() {
+        return this.admission.getTenants();
+    }
+
+    private String tenant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String name = authentication instanceof OAuth2Authentication
+                ? ((OAuth2Authentication) authentication).getOAuth2Request().getClientId() : null;
+        if (name == null || name.isEmpty()) {
+            return ANONYMOUS;
+        }
+        Map<String, FairAdmission.Tenant> tenants = this.admission.getTenants();
+        if (tenants.size() >= this.properties.getMaxTenants() && !tenants.containsKey(name)
+                && !this.properties.getWeights().containsKey(name)) {
+            return OTHER;
+        }
+        return name;
+    }
+
+    private Semaphore route(String path) {
+        for (Map.Entry<String, Semaphore> route : this.routes.entrySet()) {
+            if (path.startsWith(route.getKey())) {
+                return route.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void release(Semaphore route, FairAdmission.Tenant tenant) {
+        if (tenant != null) {
+            this.admission.release(tenant);
+            this.report(tenant);
+        }
+        if (route != null) {
+            route.release();
+        }
+    }
+
+    private void report(FairAdmission.Tenant tenant) {
+        if (this.gaugeService != null) {
+            String prefix = "admission." + metricName(tenant.getName());
+            this.gaugeService.submit(prefix + ".queue", tenant.getQueued());
+            this.gaugeService.submit(prefix + ".wait.millis", tenant.getLastWaitMillis());
+        }
+    }
+
+    // client ids are registered, not chosen per request, but they still end up in metric names
+    static String metricName(String tenant) {
+        return tenant.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private void count(String metric) {
+        if (this.counterService != null) {
+            this.counterService.increment(metric);
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    }
+
+    // adds the listener as async processing starts, before the work it hands off can complete
+    private static class AsyncListening extends HttpServletRequestWrapper {
+
+        private final Release release;
+
+        AsyncListening(HttpServletRequest request, Release release) {
+            super(request);
+            this.release = release;
+        }
+
+        @Override
+        public AsyncContext startAsync() throws IllegalStateException {
+            AsyncContext asyncContext = super.startAsync();
+            asyncContext.addListener(this.release);
+            return asyncContext;
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest request, ServletResponse response) throws IllegalStateException {
+            AsyncContext asyncContext = super.startAsync(request, response);
+            asyncContext.addListener(this.release);
+            return asyncContext;
+        }
+    }
+
+    private class Release implements AsyncListener {
+
+        private final Semaphore route;
+
+        private final FairAdmission.Tenant tenant;
+
+        private boolean released;
+
+        Release(Semaphore route, FairAdmission.Tenant tenant) {
+            this.route = route;
+            this.tenant = tenant;
+        }
+
+        synchronized void release() {
+            if (!this.released) {
+                this.released = true;
+                AdmissionFilter.this.release(this.route, this.tenant);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            this.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            this.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package greetings.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class AdmissionProperties {
+
+    // requests in flight across all tenants
+    private int capacity = 200;
+
+    private int maxQueueDepth = 100;
+
+    private long queueTimeoutMillis = 1000;
+
+    // relative share of capacity by client_id, unlisted tenants get 1
+    private Map<String, Integer> weights = new LinkedHashMap<>();
+
+    // concurrent requests by path prefix, e.g. /api/feign=50
+    private Map<String, Integer> routes = new LinkedHashMap<>();
+
+    // tenants beyond this many share one queue
+    private int maxTenants = 1000;
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public void setMaxQueueDepth(int maxQueueDepth) {
+        this.maxQueueDepth = maxQueueDepth;
+    }
+
+    public long getQueueTimeoutMillis() {
+        return queueTimeoutMillis;
+    }
+
+    public void setQueueTimeoutMillis(long queueTimeoutMillis) {
+        this.queueTimeoutMillis = queueTimeoutMillis;
+    }
+
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    public void setWeights(Map<String, Integer> weights) {
+        this.weights = weights;
+    }
+
+    public Map<String, Integer> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Integer> routes) {
+        this.routes = routes;
+    }
+
+    public int getMaxTenants() {
+        return maxTenants;
+    }
+
+    public void setMaxTenants(int maxTenants) {
+        this.maxTenants = maxTenants;
+    }
+}
@@ -0,0 +1,190 @@
+package greetings.admission;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Weighted fair queuing over a fixed number of concurrent slots (start-time fair
+ * queuing). While a slot is free and nobody is waiting, any tenant is admitted at once,
+ * so a lone tenant can use all of the capacity. Once callers have to wait, slots go to
+ * the waiter with the smallest virtual finish time. Each tenant then gets a share of
+ * the slots proportional to its weight, however many requests it has queued.
+ */
+class FairAdmission {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final PriorityQueue<Waiter> waiting = new PriorityQueue<>(
+            Comparator.comparingDouble((Waiter w) -> w.finish).thenComparingLong(w -> w.sequence));
+
+    private final Map<String, Tenant> tenants = new ConcurrentHashMap<>();
+
+    private final ToIntFunction<String> weights;
+
+    private final int maxQueueDepth;
+
+    private int available;
+
+    private double virtualTime;
+
+    private long sequence;
+
+    FairAdmission(int capacity, int maxQueueDepth, ToIntFunction<String> weights) {
+        this.available = capacity;
+        this.maxQueueDepth = maxQueueDepth;
+        this.weights = weights;
+    }
+
+    /**
+     * @return the {@link Tenant} holding a slot, or null if the tenant's queue is full or
+     * no slot came free within the timeout
+     */
+    Tenant acquire(String name, long timeoutMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        this.lock.lock();
+        try {
+            Tenant tenant = this.tenants.computeIfAbsent(name, n -> new Tenant(n, Math.max(1, this.weights.applyAsInt(n))));
+            if (this.waiting.isEmpty() && this.available > 0) {
+                this.available--;
+                tenant.active++;
+                tenant.admitted(0);
+                return tenant;
+            }
+            if (tenant.queued >= this.maxQueueDepth) {
+                tenant.rejected++;
+                return null;
+            }
+            double startTag = Math.max(this.virtualTime, tenant.lastFinish);
+            tenant.lastFinish = startTag + 1d / tenant.weight;
+            Waiter waiter = new Waiter(tenant, startTag, tenant.lastFinish, this.sequence++, this.lock.newCondition());
+            this.waiting.add(waiter);
+            tenant.queued++;
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        this.waiting.remove(waiter);
+                        tenant.queued--;
+                        tenant.rejected++;
+                        return null;
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            }
+            catch (InterruptedException e) {
+                if (waiter.granted) {
+                    this.release(tenant);
+                }
+                else {
+                    this.waiting.remove(waiter);
+                    tenant.queued--;
+                }
+                throw e;
+            }
+            tenant.admitted(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return tenant;
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    void release(Tenant tenant) {
+        this.lock.lock();
+        try {
+            tenant.active--;
+            Waiter next = this.waiting.poll();
+            if (next == null) {
+                this.available++;
+                return;
+            }
+            this.virtualTime = next.start;
+            next.tenant.queued--;
+            next.tenant.active++;
+            next.granted = true;
+            next.condition.signal();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    Map<String, Tenant> getTenants() {
+        return this.tenants;
+    }
+
+    static class Tenant {
+
+        private final String name;
+
+        private final int weight;
+
+        private double lastFinish;
+
+        // guarded by the admission lock, read without it for reporting
+        private volatile int queued, active;
+
+        private volatile long admitted, rejected, lastWaitMillis;
+
+        Tenant(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        private void admitted(long waitMillis) {
+            this.admitted++;
+            this.lastWaitMillis = waitMillis;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getQueued() {
+            return queued;
+        }
+
+        int getActive() {
+            return active;
+        }
+
+        long getAdmitted() {
+            return admitted;
+        }
+
+        long getRejected() {
+            return rejected;
+        }
+
+        long getLastWaitMillis() {
+            return lastWaitMillis;
+        }
+    }
+
+    private static class Waiter {
+
+        private final Tenant tenant;
+
+        private final double start, finish;
+
+        private final long sequence;
+
+        private final Condition condition;
+
+        private boolean granted;
+
+        Waiter(Tenant tenant, double start, double finish, long sequence, Condition condition) {
+            this.tenant = tenant;
+            this.start = start;
+            this.finish = finish;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package greetings.deadline;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import deadline.Deadline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+// proxied requests carry what's left of the deadline, and aren't proxied at all once less than min-millis is left
+@Component
+class DeadlineZuulFilter extends ZuulFilter {
+
+    private final CounterService counterService;
+
+    private final long minMillis;
+
+    @Autowired
+    public DeadlineZuulFilter(CounterService counterService, @Value("${edge.deadline.min-millis:10}") long minMillis) {
+        this.counterService = counterService;
+        this.minMillis = minMillis;
+    }
+
+    @Override
+    public String filterType() {
+        return "pre";
+    }
+
+    @Override
+    public int filterOrder() {
+        return 10;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+        return Deadline.remainingMillis() != null;
+    }
+
+    @Override
+    public Object run() {
+        RequestContext context = RequestContext.getCurrentContext();
+        long remaining = Deadline.remainingMillis();
+        if (remaining <= 0 || remaining < this.minMillis) {
+            this.counterService.increment("deadline.shed.outbound");
+            context.setSendZuulResponse(false);
+            context.setResponseStatusCode(HttpStatus.GATEWAY_TIMEOUT.value());
+            return null;
+        }
+        context.addZuulRequestHeader(Deadline.HEADER, Long.toString(remaining));
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+package greetings.drain;
+
+import com.netflix.loadbalancer.DynamicServerListLoadBalancer;
+import com.netflix.loadbalancer.ILoadBalancer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ribbon polls its server lists every 30 seconds, long after a fetch from the registry
+ * has shown an instance going OUT_OF_SERVICE. A heartbeat follows every fetch, so the
+ * server lists are refreshed from the registry client's cache right then, and only UP
+ * instances are kept. Only the load balancers of services the edge has already called
+ * are refreshed, the others are created when they are first needed.
+ */
+@Component
+class ServerListRefresher {
+
+    private final SpringClientFactory clientFactory;
+
+    @Autowired
+    ServerListRefresher(SpringClientFactory clientFactory) {
+        this.clientFactory = clientFactory;
+    }
+
+    @EventListener(HeartbeatEvent.class)
+    public void onHeartbeatEvent() {
+        for (String service : this.clientFactory.getContextNames()) {
+            ILoadBalancer loadBalancer = this.clientFactory.getLoadBalancer(service);
+            if (loadBalancer instanceof DynamicServerListLoadBalancer) {
+                ((DynamicServerListLoadBalancer<?>) loadBalancer).updateListOfServers();
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package greetings.hashing;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Places each member at {@code replicas} points on a ring of 64-bit hashes. A key
+ * belongs to the first member clockwise from its own hash, so adding or removing a
+ * member only moves the keys on the arcs that member gains or loses.
+ */
+class ConsistentHashRing<T> {
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+
+    private final Set<T> members;
+
+    ConsistentHashRing(Collection<T> members, Function<T, String> id, int replicas) {
+        this.members = new HashSet<>(members);
+        for (T member : members) {
+            for (int i = 0; i < replicas; i++) {
+                this.ring.put(hash(id.apply(member) + "#" + i), member);
+            }
+        }
+    }
+
+    Set<T> getMembers() {
+        return this.members;
+    }
+
+    // the first member clockwise from the key that accepts it, null if none does
+    T choose(String key, Predicate<T> accepts) {
+        long hash = hash(key);
+        Set<T> declined = new HashSet<>();
+        for (Collection<T> arc : Arrays.asList(this.ring.tailMap(hash, true).values(), this.ring.headMap(hash, false).values())) {
+            for (T member : arc) {
+                if (declined.contains(member)) {
+                    continue;
+                }
+                if (accepts.test(member)) {
+                    return member;
+                }
+                declined.add(member);
+                if (declined.size() == this.members.size()) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long hash(String value) {
+        return Hashing.murmur3_128().hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+}
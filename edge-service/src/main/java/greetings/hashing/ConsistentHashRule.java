@@ -0,0 +1,82 @@
+package greetings.hashing;
+
+import com.netflix.client.config.CommonClientConfigKey;
+import com.netflix.client.config.IClientConfig;
+import com.netflix.client.config.IClientConfigKey;
+import com.netflix.loadbalancer.*;
+
+import java.util.List;
+
+/**
+ * Sends calls with the same {@link HashKeys key} to the same server, so per-instance
+ * caches see the keys they already hold. A server takes a key only while it has fewer
+ * than {@code HashLoadFactor} times the average number of active requests, otherwise
+ * the key spills to the next server on the ring. Calls without a key go round robin.
+ * Opt in per client:
+ *
+ * <pre>
+ * greetings-service.ribbon.NFLoadBalancerRuleClassName=greetings.hashing.ConsistentHashRule
+ * greetings-service.ribbon.HashLoadFactor=1.25
+ * </pre>
+ */
+public class ConsistentHashRule extends AbstractLoadBalancerRule {
+
+    static final IClientConfigKey<?> LOAD_FACTOR = CommonClientConfigKey.valueOf("HashLoadFactor");
+
+    static final IClientConfigKey<?> REPLICAS = CommonClientConfigKey.valueOf("HashReplicas");
+
+    private final RoundRobinRule roundRobin = new RoundRobinRule();
+
+    private double loadFactor = 1.25;
+
+    private int replicas = 160;
+
+    private volatile ConsistentHashRing<Server> ring;
+
+    @Override
+    public void initWithNiwsConfig(IClientConfig clientConfig) {
+        this.loadFactor = Double.parseDouble(String.valueOf(clientConfig.getProperty(LOAD_FACTOR, this.loadFactor)));
+        this.replicas = Integer.parseInt(String.valueOf(clientConfig.getProperty(REPLICAS, this.replicas)));
+    }
+
+    @Override
+    public void setLoadBalancer(ILoadBalancer loadBalancer) {
+        super.setLoadBalancer(loadBalancer);
+        this.roundRobin.setLoadBalancer(loadBalancer);
+    }
+
+    @Override
+    public Server choose(Object ignored) {
+        String key = HashKeys.current();
+        ILoadBalancer loadBalancer = this.getLoadBalancer();
+        if (key == null || loadBalancer == null) {
+            return this.roundRobin.choose(ignored);
+        }
+        List<Server> servers = loadBalancer.getReachableServers();
+        if (servers.isEmpty()) {
+            return null;
+        }
+        ConsistentHashRing<Server> ring = this.ring(servers);
+        if (!(loadBalancer instanceof AbstractLoadBalancer)) {
+            return ring.choose(key, server -> true);
+        }
+        LoadBalancerStats stats = ((AbstractLoadBalancer) loadBalancer).getLoadBalancerStats();
+        long active = 0;
+        for (Server server : servers) {
+            active += stats.getSingleServerStat(server).getActiveRequestsCount();
+        }
+        // counting this call, at least one server is always below it
+        double capacity = Math.ceil(this.loadFactor * (active + 1) / servers.size());
+        return ring.choose(key, server -> stats.getSingleServerStat(server).getActiveRequestsCount() < capacity);
+    }
+
+    // rebuilt only when the reachable servers change, the ring keeps the keys of those that stay
+    private ConsistentHashRing<Server> ring(List<Server> servers) {
+        ConsistentHashRing<Server> ring = this.ring;
+        if (ring == null || ring.getMembers().size() != servers.size() || !ring.getMembers().containsAll(servers)) {
+            ring = new ConsistentHashRing<>(servers, Server::getId, this.replicas);
+            this.ring = ring;
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,58 @@
+package greetings.hashing;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Finds the key an outbound call to a hashed service is routed by, and holds it for
+ * {@link ConsistentHashRule} while the call chooses its server on this thread.
+ */
+class HashKeys {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final HashingProperties properties;
+
+    HashKeys(HashingProperties properties) {
+        this.properties = properties;
+    }
+
+    static String current() {
+        return CURRENT.get();
+    }
+
+    // the header if the call has one, else the {key} variable of the path pattern
+    String keyFor(URI uri, Function<String, String> headers) {
+        if (uri.getHost() == null || !this.properties.getServices().contains(uri.getHost())) {
+            return null;
+        }
+        String key = headers.apply(this.properties.getHeader());
+        if (key == null && this.pathMatcher.match(this.properties.getPathPattern(), uri.getPath())) {
+            Map<String, String> variables = this.pathMatcher.extractUriTemplateVariables(
+                    this.properties.getPathPattern(), uri.getPath());
+            key = variables.get("key");
+        }
+        return key;
+    }
+
+    // returns what to pass to exit(), calls nest
+    static String enter(String key) {
+        String previous = CURRENT.get();
+        CURRENT.set(key);
+        return previous;
+    }
+
+    static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package greetings.hashing;
+
+import feign.Client;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Gives Feign and {@code RestTemplate} calls to {@code edge.hashing.services} their key
+ * for {@link ConsistentHashRule}, for as long as each call takes. Both choose their
+ * server on the calling thread, with Hystrix on SEMAPHORE isolation.
+ */
+@Configuration
+@ConditionalOnProperty(name = "edge.hashing.enabled")
+public class HashingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("edge.hashing")
+    HashingProperties hashingProperties() {
+        return new HashingProperties();
+    }
+
+    @Bean
+    HashKeys hashKeys(HashingProperties properties) {
+        return new HashKeys(properties);
+    }
+
+    // ahead of the load balancer's own interceptor
+    @Bean
+    static BeanPostProcessor hashKeyPostProcessor(BeanFactory beanFactory) {
+        // looked up on first use, post processors are created before properties are bound
+        Supplier<HashKeys> keys = () -> beanFactory.getBean(HashKeys.class);
+        return new BeanPostProcessor() {
+
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RestTemplate) {
+                    ((RestTemplate) bean).getInterceptors().add(0, restTemplateInterceptor(keys));
+                }
+                else if (bean instanceof Client) {
+                    return feignClient((Client) bean, keys);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static ClientHttpRequestInterceptor restTemplateInterceptor(Supplier<HashKeys> keys) {
+        return (request, body, execution) -> {
+            String previous = HashKeys.enter(keys.get().keyFor(request.getURI(), request.getHeaders()::getFirst));
+            try {
+                return execution.execute(request, body);
+            }
+            finally {
+                HashKeys.exit(previous);
+            }
+        };
+    }
+
+    private static Client feignClient(Client client, Supplier<HashKeys> keys) {
+        return (request, options) -> {
+            String previous = HashKeys.enter(keys.get().keyFor(URI.create(request.url()), name -> {
+                Collection<String> values = request.headers().get(name);
+                return values == null || values.isEmpty() ? null : values.iterator().next();
+            }));
+            try {
+                return client.execute(request, options);
+            }
+            finally {
+                HashKeys.exit(previous);
+            }
+        };
+    }
+}
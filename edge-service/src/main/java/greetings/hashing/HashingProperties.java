@@ -0,0 +1,41 @@
+package greetings.hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HashingProperties {
+
+    // clients whose calls carry a key, each also needs <service>.ribbon.NFLoadBalancerRuleClassName
+    private List<String> services = new ArrayList<>(Arrays.asList("greetings-service"));
+
+    // taken as the key when the outbound call has it
+    private String header = "X-Hash-Key";
+
+    // otherwise the {key} variable of the call's path
+    private String pathPattern = "/greet/{key}";
+
+    public List<String> getServices() {
+        return services;
+    }
+
+    public void setServices(List<String> services) {
+        this.services = services;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public String getPathPattern() {
+        return pathPattern;
+    }
+
+    public void setPathPattern(String pathPattern) {
+        this.pathPattern = pathPattern;
+    }
+}
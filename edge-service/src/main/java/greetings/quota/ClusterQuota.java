@@ -0,0 +1,115 @@
+package greetings.quota;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a global quota between the edge-service replicas in the registry. Requests are
+ * still admitted by the local {@link QuotaBucket}. Every lease interval each replica
+ * publishes its recent demand in its instance metadata. It then reads everyone's demand
+ * and sets its own rate to its share of the pool.
+ * <p>
+ * The pool is {@code global * (1 - headroom)}. Each replica gets {@code minShare} of an
+ * even split, and the rest follows demand. A share drops right away but only rises to
+ * the lower of this lease's and the last lease's figure, so a replica never takes
+ * capacity a peer hasn't had a lease interval to give up. When all replicas see the same
+ * membership, admissions in any window {@code t} stay under {@code global * t} plus one
+ * burst per replica. A replica that hasn't seen a newcomer yet can overshoot by the
+ * newcomer's share, for at most one registry fetch interval. The headroom absorbs that
+ * up to {@code headroom * global}.
+ */
+class ClusterQuota implements Throttle {
+
+    static final String DEMAND_METADATA = "quota-demand";
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final QuotaBucket bucket;
+
+    private final QuotaProperties properties;
+
+    private final DiscoveryClient discoveryClient;
+
+    private final ApplicationInfoManager applicationInfoManager;
+
+    private final String serviceId;
+
+    private double demand;
+
+    private double lastShare;
+
+    private long lastRebalance = System.nanoTime();
+
+    ClusterQuota(QuotaProperties properties, DiscoveryClient discoveryClient,
+                 ApplicationInfoManager applicationInfoManager, String serviceId) {
+        this.properties = properties;
+        this.discoveryClient = discoveryClient;
+        this.applicationInfoManager = applicationInfoManager;
+        this.serviceId = serviceId;
+        // on our own until the first lease, an even split assuming we're alone is too generous
+        this.lastShare = properties.getPermitsPerSecond() * (1 - properties.getHeadroom()) * properties.getMinShare();
+        this.bucket = new QuotaBucket(this.lastShare, properties.getBurst());
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return this.bucket.tryAcquire();
+    }
+
+    synchronized void rebalance() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-3, (now - this.lastRebalance) / 1e9);
+        this.lastRebalance = now;
+        this.demand = this.demand / 2 + this.bucket.drainAttempts() / seconds / 2;
+        this.applicationInfoManager.registerAppMetadata(Collections.singletonMap(DEMAND_METADATA,
+                String.format(Locale.ROOT, "%.3f", this.demand)));
+
+        List<ServiceInstance> peers = this.discoveryClient.getInstances(this.serviceId);
+        ServiceInstance self = this.discoveryClient.getLocalServiceInstance();
+        double total = this.demand;
+        int replicas = 1;
+        for (ServiceInstance peer : peers) {
+            if (self != null && peer.getHost().equals(self.getHost()) && peer.getPort() == self.getPort()) {
+                continue;
+            }
+            replicas++;
+            total += demandOf(peer);
+        }
+        double share = share(this.properties.getPermitsPerSecond() * (1 - this.properties.getHeadroom()),
+                this.properties.getMinShare(), replicas, this.demand, total);
+        double applied = Math.min(share, this.lastShare);
+        this.lastShare = share;
+        this.bucket.setRate(applied);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("%d replicas, demand %.2f/s of %.2f/s, rate %.3f/s", replicas, this.demand, total, applied));
+        }
+    }
+
+    double getRate() {
+        return this.bucket.getRate();
+    }
+
+    // min share of an even split for everyone, the rest by demand (evenly when nobody has any)
+    static double share(double pool, double minShare, int replicas, double demand, double totalDemand) {
+        double even = pool / replicas;
+        double byDemand = totalDemand <= 0 ? even : pool * demand / totalDemand;
+        return minShare * even + (1 - minShare) * byDemand;
+    }
+
+    private static double demandOf(ServiceInstance peer) {
+        String demand = peer.getMetadata() == null ? null : peer.getMetadata().get(DEMAND_METADATA);
+        try {
+            return demand == null ? 0 : Math.max(0, Double.parseDouble(demand));
+        }
+        catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package greetings.quota;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free rate limiter (the generic cell rate algorithm): one CAS on the theoretical
+ * arrival time per admitted request, no lock and no background refill. It admits at
+ * most {@code rate * t + burst} requests in any window of length {@code t}. The rate can
+ * change at any time. Every attempt, admitted or not, counts as demand.
+ */
+class QuotaBucket implements Throttle {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final LongSupplier nanoTime;
+
+    private final AtomicLong theoreticalArrival;
+
+    private final LongAdder attempts = new LongAdder();
+
+    private final int burst;
+
+    private volatile long intervalNanos;
+
+    QuotaBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    QuotaBucket(double permitsPerSecond, int burst, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.theoreticalArrival = new AtomicLong(nanoTime.getAsLong());
+        this.burst = Math.max(1, burst);
+        this.setRate(permitsPerSecond);
+    }
+
+    void setRate(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond <= 0 ? 0 : Math.max(1, (long) (SECOND / permitsPerSecond));
+    }
+
+    double getRate() {
+        long interval = this.intervalNanos;
+        return interval == 0 ? 0 : (double) SECOND / interval;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        this.attempts.increment();
+        long interval = this.intervalNanos;
+        if (interval == 0) {
+            return false;
+        }
+        long tolerance = interval * (this.burst - 1);
+        while (true) {
+            long now = this.nanoTime.getAsLong();
+            long arrival = this.theoreticalArrival.get();
+            if (arrival - now > tolerance) {
+                return false;
+            }
+            if (this.theoreticalArrival.compareAndSet(arrival, Math.max(arrival, now) + interval)) {
+                return true;
+            }
+        }
+    }
+
+    long drainAttempts() {
+        return this.attempts.sumThenReset();
+    }
+}
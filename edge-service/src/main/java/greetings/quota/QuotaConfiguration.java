@@ -0,0 +1,53 @@
+package greetings.quota;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.netflix.appinfo.ApplicationInfoManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@Configuration
+public class QuotaConfiguration {
+
+    @Bean
+    @ConfigurationProperties("edge.quota")
+    QuotaProperties quotaProperties() {
+        return new QuotaProperties();
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "edge.quota.cluster", havingValue = "false", matchIfMissing = true)
+    public static class LocalQuotaConfiguration {
+
+        @Bean
+        Throttle throttle(QuotaProperties properties) {
+            return RateLimiter.create(properties.getPermitsPerSecond())::tryAcquire;
+        }
+    }
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty("edge.quota.cluster")
+    public static class ClusterQuotaConfiguration {
+
+        private ClusterQuota quota;
+
+        @Bean
+        ClusterQuota throttle(QuotaProperties properties, DiscoveryClient discoveryClient,
+                              ApplicationInfoManager applicationInfoManager,
+                              @Value("${spring.application.name}") String serviceId) {
+            this.quota = new ClusterQuota(properties, discoveryClient, applicationInfoManager, serviceId);
+            return this.quota;
+        }
+
+        @Scheduled(fixedDelayString = "${edge.quota.lease-interval-millis:5000}")
+        public void rebalance() {
+            this.quota.rebalance();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package greetings.quota;
+
+public class QuotaProperties {
+
+    // split between the replicas in the registry instead of enforced per JVM
+    private boolean cluster;
+
+    // across all replicas in cluster mode
+    private double permitsPerSecond = 0.1;
+
+    private int burst = 1;
+
+    // share of the global quota no replica is handed, absorbs stale membership views
+    private double headroom = 0.1;
+
+    // share of an even split every replica keeps, however little demand it reports
+    private double minShare = 0.1;
+
+    public boolean isCluster() {
+        return cluster;
+    }
+
+    public void setCluster(boolean cluster) {
+        this.cluster = cluster;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public void setPermitsPerSecond(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public double getHeadroom() {
+        return headroom;
+    }
+
+    public void setHeadroom(double headroom) {
+        this.headroom = headroom;
+    }
+
+    public double getMinShare() {
+        return minShare;
+    }
+
+    public void setMinShare(double minShare) {
+        this.minShare = minShare;
+    }
+}
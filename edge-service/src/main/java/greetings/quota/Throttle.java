@@ -0,0 +1,7 @@
+package greetings.quota;
+
+// the per-request admission decision behind the throttled Zuul routes
+public interface Throttle {
+
+    boolean tryAcquire();
+}
@@ -0,0 +1,41 @@
+package greetings.routing;
+
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties.ZuulRoute;
+import org.springframework.cloud.netflix.zuul.filters.discovery.DiscoveryClientRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
+
+import java.util.LinkedHashMap;
+
+/**
+ * {@link DiscoveryClientRouteLocator} that resolves requests through a {@link RouteTrie}
+ * instead of trying each route pattern in turn. Each refresh builds a new trie and
+ * swaps it in with one volatile write, so requests always see a complete route table.
+ */
+public class CompiledRouteLocator extends DiscoveryClientRouteLocator {
+
+    private volatile RouteTrie<ZuulRoute> index = new RouteTrie<>();
+
+    public CompiledRouteLocator(String servletPath, DiscoveryClient discovery, ZuulProperties properties,
+                                ServiceRouteMapper serviceRouteMapper) {
+        super(servletPath, discovery, properties, serviceRouteMapper);
+    }
+
+    @Override
+    protected LinkedHashMap<String, ZuulRoute> locateRoutes() {
+        LinkedHashMap<String, ZuulRoute> routes = super.locateRoutes();
+        RouteTrie<ZuulRoute> index = new RouteTrie<>();
+        routes.forEach(index::add);
+        this.index = index;
+        return routes;
+    }
+
+    @Override
+    protected ZuulRoute getZuulRoute(String adjustedPath) {
+        if (matchesIgnoredPatterns(adjustedPath)) {
+            return null;
+        }
+        return this.index.match(adjustedPath);
+    }
+}
@@ -0,0 +1,143 @@
+package greetings.routing;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path-segment trie over Ant-style route patterns. Literal segments, {@code *} and a
+ * trailing {@code **} are compiled into the trie. Any other pattern falls back to an
+ * {@link AntPathMatcher}. The first pattern added wins, the same as a linear scan of an
+ * ordered route map. Not thread safe while it's being built, so build one and publish it.
+ */
+class RouteTrie<T> {
+
+    private static final String SEPARATOR = "/";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Node<T> root = new Node<>();
+
+    private final List<Entry<T>> fallbacks = new ArrayList<>();
+
+    private int size;
+
+    void add(String pattern, T value) {
+        Entry<T> entry = new Entry<>(this.size++, pattern, value);
+        String[] segments = compile(pattern);
+        if (segments == null) {
+            this.fallbacks.add(entry);
+            return;
+        }
+        Node<T> node = this.root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if ("**".equals(segment)) {
+                node.rest = node.rest == null ? entry : node.rest;
+                return;
+            }
+            if ("*".equals(segment)) {
+                node.wildcard = node.wildcard == null ? new Node<>() : node.wildcard;
+                node = node.wildcard;
+            }
+            else {
+                node = node.children.computeIfAbsent(segment, s -> new Node<>());
+            }
+        }
+        node.exact = node.exact == null ? entry : node.exact;
+    }
+
+    T match(String path) {
+        Entry<T> best = null;
+        if (path.startsWith(SEPARATOR)) {
+            String[] segments = StringUtils.tokenizeToStringArray(path, SEPARATOR, false, true);
+            best = find(this.root, segments, 0, path.endsWith(SEPARATOR), null);
+        }
+        for (Entry<T> fallback : this.fallbacks) {
+            if (best != null && fallback.index > best.index) {
+                break;
+            }
+            if (this.pathMatcher.match(fallback.pattern, path)) {
+                best = fallback;
+                break;
+            }
+        }
+        return best == null ? null : best.value;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    private static <T> Entry<T> find(Node<T> node, String[] segments, int i, boolean trailingSlash, Entry<T> best) {
+        best = first(best, node.rest);
+        if (i == segments.length) {
+            if (!trailingSlash) {
+                return first(best, node.exact);
+            }
+            // AntPathMatcher lets "/a/*" match "/a/"
+            return node.wildcard == null ? best : first(best, node.wildcard.exact);
+        }
+        Node<T> child = node.children.get(segments[i]);
+        if (child != null) {
+            best = find(child, segments, i + 1, trailingSlash, best);
+        }
+        if (node.wildcard != null) {
+            best = find(node.wildcard, segments, i + 1, trailingSlash, best);
+        }
+        return best;
+    }
+
+    private static <T> Entry<T> first(Entry<T> a, Entry<T> b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.index < b.index ? a : b;
+    }
+
+    // the pattern's segments, or null if the trie can't represent it exactly
+    private static String[] compile(String pattern) {
+        if (!pattern.startsWith(SEPARATOR) || pattern.endsWith(SEPARATOR)) {
+            return null;
+        }
+        String[] segments = StringUtils.tokenizeToStringArray(pattern, SEPARATOR, false, true);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            boolean wildcard = "*".equals(segment) || ("**".equals(segment) && i == segments.length - 1);
+            if (!wildcard && (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0)) {
+                return null;
+            }
+        }
+        return segments;
+    }
+
+    private static class Node<T> {
+
+        private final Map<String, Node<T>> children = new HashMap<>();
+
+        private Node<T> wildcard;
+
+        private Entry<T> exact;
+
+        private Entry<T> rest;
+    }
+
+    private static class Entry<T> {
+
+        private final int index;
+
+        private final String pattern;
+
+        private final T value;
+
+        Entry(int index, String pattern, T value) {
+            this.index = index;
+            this.pattern = pattern;
+            this.value = value;
+        }
+    }
+}
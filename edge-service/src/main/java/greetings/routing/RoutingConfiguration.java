@@ -0,0 +1,21 @@
+package greetings.routing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// replaces Zuul's linear DiscoveryClientRouteLocator, edge.routing.compiled=false brings it back
+@Configuration
+@ConditionalOnProperty(name = "edge.routing.compiled", matchIfMissing = true)
+public class RoutingConfiguration {
+
+    @Bean
+    CompiledRouteLocator compiledRouteLocator(ServerProperties server, DiscoveryClient discovery,
+                                              ZuulProperties zuulProperties, ServiceRouteMapper serviceRouteMapper) {
+        return new CompiledRouteLocator(server.getServletPrefix(), discovery, zuulProperties, serviceRouteMapper);
+    }
+}
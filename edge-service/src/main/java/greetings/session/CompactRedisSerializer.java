@@ -0,0 +1,37 @@
+package greetings.session;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+// spring-session-data-redis writes each attribute to its own hash field, in the compact format
+class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    private final CompactSessionSerializer serializer;
+
+    CompactRedisSerializer(CompactSessionSerializer serializer) {
+        this.serializer = serializer;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        try {
+            return this.serializer.serializeValue(value);
+        }
+        catch (IllegalStateException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return this.serializer.deserializeValue(bytes);
+        }
+        catch (IllegalStateException e) {
+            throw new SerializationException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package greetings.session;
+
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.session.ExpiringSession;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+
+/**
+ * Keeps sessions only in their {@link CompactSessionSerializer serialized} form so that
+ * any node can pick up a session written by any other node.
+ */
+public abstract class CompactSessionRepository implements SessionRepository<ExpiringSession> {
+
+    private final CompactSessionSerializer serializer;
+
+    private final GaugeService gaugeService;
+
+    private int defaultMaxInactiveInterval = MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS;
+
+    protected CompactSessionRepository(CompactSessionSerializer serializer, GaugeService gaugeService) {
+        this.serializer = serializer;
+        this.gaugeService = gaugeService;
+    }
+
+    public void setDefaultMaxInactiveInterval(int defaultMaxInactiveInterval) {
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    @Override
+    public ExpiringSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveIntervalInSeconds(this.defaultMaxInactiveInterval);
+        return session;
+    }
+
+    @Override
+    public void save(ExpiringSession session) {
+        long start = System.nanoTime();
+        byte[] data = this.serializer.serialize(session);
+        this.record("gauge.session.serialize.micros", (System.nanoTime() - start) / 1000d);
+        this.record("gauge.session.bytes", data.length);
+        this.store(session.getId(), data, session.getMaxInactiveIntervalInSeconds());
+    }
+
+    @Override
+    public ExpiringSession getSession(String id) {
+        byte[] data = this.load(id);
+        if (data == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        MapSession session = this.serializer.deserialize(data);
+        this.record("gauge.session.deserialize.micros", (System.nanoTime() - start) / 1000d);
+        if (session.isExpired()) {
+            this.delete(id);
+            return null;
+        }
+        session.setLastAccessedTime(System.currentTimeMillis());
+        return session;
+    }
+
+    @Override
+    public void delete(String id) {
+        this.remove(id);
+    }
+
+    protected abstract void store(String id, byte[] data, int maxInactiveIntervalInSeconds);
+
+    protected abstract byte[] load(String id);
+
+    protected abstract void remove(String id);
+
+    private void record(String metric, double value) {
+        if (this.gaugeService != null) {
+            this.gaugeService.submit(metric, value);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package greetings.session;
+
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.client.token.AccessTokenRequest;
+import org.springframework.security.oauth2.client.token.DefaultAccessTokenRequest;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.session.ExpiringSession;
+import org.springframework.session.MapSession;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Binary session format. The OAuth2 client context is written field by field, other
+ * values fall back to (deflated, if large) Java serialization.
+ *
+ * <pre>
+ * version:1 | creationTime:8 | lastAccessedTime:8 | maxInactiveSeconds:4 | id | count | (name, tag, value)*
+ * </pre>
+ */
+public class CompactSessionSerializer {
+
+    static final int LAST_ACCESSED_OFFSET = 9;
+
+    static final int MAX_INACTIVE_OFFSET = 17;
+
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0, STRING = 1, LONG = 2, BOOLEAN = 3,
+            OAUTH2_CLIENT_CONTEXT = 4, SERIALIZED = 5, SERIALIZED_DEFLATED = 6;
+
+    private static final int DEFLATE_THRESHOLD = 256;
+
+    // DefaultOAuth2ClientContext has no accessor for the state preserved across the redirect
+    private static final Field PRESERVED_STATE = preservedStateField();
+
+    private final Supplier<AccessTokenRequest> accessTokenRequest;
+
+    public CompactSessionSerializer() {
+        this(DefaultAccessTokenRequest::new);
+    }
+
+    // the request scoped proxy has to be handed back to the context, it can't travel with the session
+    public CompactSessionSerializer(Supplier<AccessTokenRequest> accessTokenRequest) {
+        this.accessTokenRequest = accessTokenRequest;
+    }
+
+    public byte[] serialize(ExpiringSession session) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeLong(session.getCreationTime());
+            out.writeLong(session.getLastAccessedTime());
+            out.writeInt(session.getMaxInactiveIntervalInSeconds());
+            out.writeUTF(session.getId());
+            Set<String> names = session.getAttributeNames();
+            out.writeShort(names.size());
+            for (String name : names) {
+                out.writeUTF(name);
+                writeValue(out, session.getAttribute(name));
+            }
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("couldn't serialize session " + session.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public MapSession deserialize(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("unsupported session format version " + version);
+            }
+            long creationTime = in.readLong();
+            long lastAccessedTime = in.readLong();
+            int maxInactive = in.readInt();
+            MapSession session = new MapSession(in.readUTF());
+            session.setCreationTime(creationTime);
+            session.setLastAccessedTime(lastAccessedTime);
+            session.setMaxInactiveIntervalInSeconds(maxInactive);
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                session.setAttribute(name, readValue(in));
+            }
+            return session;
+        }
+        catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("couldn't deserialize session", e);
+        }
+    }
+
+    // one attribute on its own, for stores that keep a session's attributes apart
+    public byte[] serializeValue(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeValue(out, value);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException("couldn't serialize " + value.getClass(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public Object deserializeValue(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return readValue(in);
+        }
+        catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("couldn't deserialize session attribute", e);
+        }
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        }
+        else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        }
+        else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        }
+        else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        }
+        else if (value instanceof DefaultOAuth2ClientContext && isCompactable((DefaultOAuth2ClientContext) value)) {
+            out.writeByte(OAUTH2_CLIENT_CONTEXT);
+            writeClientContext(out, (DefaultOAuth2ClientContext) value);
+        }
+        else {
+            byte[] serialized = javaSerialize(value);
+            if (serialized.length > DEFLATE_THRESHOLD) {
+                out.writeByte(SERIALIZED_DEFLATED);
+                writeBytes(out, deflate(serialized));
+            }
+            else {
+                out.writeByte(SERIALIZED);
+                writeBytes(out, serialized);
+            }
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException, ClassNotFoundException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case OAUTH2_CLIENT_CONTEXT:
+                return readClientContext(in);
+            case SERIALIZED:
+                return javaDeserialize(readBytes(in));
+            case SERIALIZED_DEFLATED:
+                return javaDeserialize(inflate(readBytes(in)));
+            default:
+                throw new IllegalStateException("unknown session attribute tag " + tag);
+        }
+    }
+
+    private void writeClientContext(DataOutputStream out, DefaultOAuth2ClientContext context) throws IOException {
+        OAuth2AccessToken token = context.getAccessToken();
+        out.writeBoolean(token != null);
+        if (token != null) {
+            writeString(out, token.getValue());
+            writeString(out, token.getTokenType());
+            out.writeLong(token.getExpiration() == null ? -1 : token.getExpiration().getTime());
+            writeString(out, token.getRefreshToken() == null ? null : token.getRefreshToken().getValue());
+            Set<String> scope = token.getScope() == null ? Collections.emptySet() : token.getScope();
+            out.writeShort(scope.size());
+            for (String s : scope) {
+                out.writeUTF(s);
+            }
+            writeStringMap(out, token.getAdditionalInformation());
+        }
+        writeStringMap(out, preservedState(context));
+    }
+
+    private OAuth2ClientContext readClientContext(DataInputStream in) throws IOException {
+        DefaultOAuth2ClientContext context = new DefaultOAuth2ClientContext(this.accessTokenRequest.get());
+        if (in.readBoolean()) {
+            DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(readString(in));
+            token.setTokenType(readString(in));
+            long expiration = in.readLong();
+            if (expiration >= 0) {
+                token.setExpiration(new Date(expiration));
+            }
+            String refreshToken = readString(in);
+            if (refreshToken != null) {
+                token.setRefreshToken(new DefaultOAuth2RefreshToken(refreshToken));
+            }
+            int scopes = in.readUnsignedShort();
+            Set<String> scope = new LinkedHashSet<>(scopes);
+            for (int i = 0; i < scopes; i++) {
+                scope.add(in.readUTF());
+            }
+            token.setScope(scope);
+            token.setAdditionalInformation(new LinkedHashMap<>(readStringMap(in)));
+            context.setAccessToken(token);
+        }
+        readStringMap(in).forEach(context::setPreservedState);
+        return context;
+    }
+
+    // only plain string values get the compact treatment, anything else goes through Java serialization
+    private boolean isCompactable(DefaultOAuth2ClientContext context) {
+        OAuth2AccessToken token = context.getAccessToken();
+        if (token != null && !onlyStrings(token.getAdditionalInformation())) {
+            return false;
+        }
+        return PRESERVED_STATE != null && onlyStrings(preservedState(context));
+    }
+
+    private static boolean onlyStrings(Map<String, ?> map) {
+        return map == null || map.values().stream().allMatch(v -> v == null || v instanceof String);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> preservedState(DefaultOAuth2ClientContext context) {
+        return (Map<String, Object>) ReflectionUtils.getField(PRESERVED_STATE, context);
+    }
+
+    private static Field preservedStateField() {
+        Field field = ReflectionUtils.findField(DefaultOAuth2ClientContext.class, "state", Map.class);
+        if (field != null) {
+            ReflectionUtils.makeAccessible(field);
+        }
+        return field;
+    }
+
+    private static void writeStringMap(DataOutputStream out, Map<String, ?> map) throws IOException {
+        if (map == null) {
+            out.writeShort(0);
+            return;
+        }
+        out.writeShort(map.size());
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeString(out, (String) entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readStringMap(DataInputStream in) throws IOException {
+        int size = in.readUnsignedShort();
+        if (size == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> map = new LinkedHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            map.put(in.readUTF(), readString(in));
+        }
+        return map;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object javaDeserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                return Class.forName(desc.getName(), false, Thread.currentThread().getContextClassLoader());
+            }
+        }) {
+            return in.readObject();
+        }
+    }
+
+    private static byte[] deflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(bytes.length / 2);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+            out.write(bytes);
+        }
+        return deflated.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] bytes) throws IOException {
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream(bytes.length * 3);
+        try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                inflated.write(buffer, 0, read);
+            }
+        }
+        return inflated.toByteArray();
+    }
+}
@@ -0,0 +1,126 @@
+package greetings.session;
+
+import com.google.common.util.concurrent.Striped;
+import org.springframework.boot.actuate.metrics.GaugeService;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Keeps serialized sessions in direct buffers, so only the map entries live on the heap.
+ * Buffers come in power-of-two sizes and go back to a pool when their session is saved
+ * again, deleted or evicted, rather than waiting for the GC to free them. Size the store
+ * with {@code -XX:MaxDirectMemorySize}.
+ */
+public class OffHeapSessionRepository extends CompactSessionRepository {
+
+    private static final int MIN_BUFFER = 512;
+
+    private static final int MAX_POOLED_PER_SIZE = 1024;
+
+    private final Map<String, ByteBuffer> sessions = new ConcurrentHashMap<>();
+
+    private final Map<Integer, BlockingQueue<ByteBuffer>> pool = new ConcurrentHashMap<>();
+
+    // a buffer is only recycled once nobody can be reading it
+    private final Striped<ReadWriteLock> locks = Striped.readWriteLock(64);
+
+    public OffHeapSessionRepository(CompactSessionSerializer serializer, GaugeService gaugeService) {
+        super(serializer, gaugeService);
+    }
+
+    @Override
+    protected void store(String id, byte[] data, int maxInactiveIntervalInSeconds) {
+        ByteBuffer buffer = this.acquire(data.length);
+        buffer.put(data).flip();
+        ReadWriteLock lock = this.locks.get(id);
+        lock.writeLock().lock();
+        try {
+            this.release(this.sessions.put(id, buffer));
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected byte[] load(String id) {
+        ReadWriteLock lock = this.locks.get(id);
+        lock.readLock().lock();
+        try {
+            ByteBuffer buffer = this.sessions.get(id);
+            if (buffer == null) {
+                return null;
+            }
+            byte[] data = new byte[buffer.remaining()];
+            buffer.duplicate().get(data);
+            return data;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    protected void remove(String id) {
+        ReadWriteLock lock = this.locks.get(id);
+        lock.writeLock().lock();
+        try {
+            this.release(this.sessions.remove(id));
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        return this.sessions.size();
+    }
+
+    int pooled() {
+        return this.pool.values().stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    // reads the expiry straight out of the header, no need to deserialize the whole session
+    public void evictExpiredSessions() {
+        long now = System.currentTimeMillis();
+        for (String id : this.sessions.keySet()) {
+            ReadWriteLock lock = this.locks.get(id);
+            lock.writeLock().lock();
+            try {
+                ByteBuffer buffer = this.sessions.get(id);
+                if (buffer == null) {
+                    continue;
+                }
+                long lastAccessed = buffer.getLong(CompactSessionSerializer.LAST_ACCESSED_OFFSET);
+                int maxInactive = buffer.getInt(CompactSessionSerializer.MAX_INACTIVE_OFFSET);
+                if (maxInactive >= 0 && now - lastAccessed >= maxInactive * 1000L) {
+                    this.release(this.sessions.remove(id));
+                }
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private ByteBuffer acquire(int length) {
+        int capacity = Math.max(MIN_BUFFER, Integer.highestOneBit(length - 1) << 1);
+        ByteBuffer buffer = this.pool.computeIfAbsent(capacity, size -> new LinkedBlockingQueue<>(MAX_POOLED_PER_SIZE)).poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private void release(ByteBuffer buffer) {
+        if (buffer != null) {
+            this.pool.computeIfAbsent(buffer.capacity(), size -> new LinkedBlockingQueue<>(MAX_POOLED_PER_SIZE)).offer(buffer);
+        }
+    }
+}
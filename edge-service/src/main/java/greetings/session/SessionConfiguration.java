@@ -0,0 +1,79 @@
+package greetings.session;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.client.token.AccessTokenRequest;
+import org.springframework.security.oauth2.client.token.DefaultAccessTokenRequest;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+import org.springframework.session.data.redis.RedisOperationsSessionRepository;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
+
+// sessions (and with them the OAuth2ClientContext) leave the servlet container so that
+// any edge-service node can serve any request, no sticky sessions required
+@Configuration
+@ConditionalOnProperty("edge.session.store")
+public class SessionConfiguration {
+
+    @Bean
+    @ConfigurationProperties("edge.session")
+    SessionStoreProperties sessionStoreProperties() {
+        return new SessionStoreProperties();
+    }
+
+    @Bean
+    CompactSessionSerializer compactSessionSerializer(ObjectProvider<AccessTokenRequest> accessTokenRequest) {
+        return new CompactSessionSerializer(() -> {
+            AccessTokenRequest request = accessTokenRequest.getIfAvailable();
+            return request == null ? new DefaultAccessTokenRequest() : request;
+        });
+    }
+
+    @Configuration
+    @EnableScheduling
+    @EnableSpringHttpSession
+    @ConditionalOnProperty(name = "edge.session.store", havingValue = "offheap")
+    public static class OffHeapSessionConfiguration {
+
+        private OffHeapSessionRepository repository;
+
+        @Bean
+        OffHeapSessionRepository sessionRepository(CompactSessionSerializer serializer,
+                                                   SessionStoreProperties properties,
+                                                   ObjectProvider<GaugeService> gaugeService) {
+            this.repository = new OffHeapSessionRepository(serializer, gaugeService.getIfAvailable());
+            this.repository.setDefaultMaxInactiveInterval(properties.getMaxInactiveIntervalSeconds());
+            return this.repository;
+        }
+
+        @Scheduled(fixedDelayString = "${edge.session.eviction-interval-millis:60000}")
+        public void evictExpiredSessions() {
+            this.repository.evictExpiredSessions();
+        }
+    }
+
+    // Redis through spring-session-data-redis, connected with the spring.redis.* properties
+    @Configuration
+    @EnableRedisHttpSession
+    @ConditionalOnProperty(name = "edge.session.store", havingValue = "remote")
+    public static class RemoteSessionConfiguration {
+
+        @Bean
+        RedisSerializer<Object> springSessionDefaultRedisSerializer(CompactSessionSerializer serializer) {
+            return new CompactRedisSerializer(serializer);
+        }
+
+        @Bean
+        SmartInitializingSingleton sessionTimeout(RedisOperationsSessionRepository repository,
+                                                  SessionStoreProperties properties) {
+            return () -> repository.setDefaultMaxInactiveInterval(properties.getMaxInactiveIntervalSeconds());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package greetings.session;
+
+public class SessionStoreProperties {
+
+    // offheap or remote, unset leaves sessions in the servlet container
+    private String store;
+
+    private int maxInactiveIntervalSeconds = 1800;
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public int getMaxInactiveIntervalSeconds() {
+        return maxInactiveIntervalSeconds;
+    }
+
+    public void setMaxInactiveIntervalSeconds(int maxInactiveIntervalSeconds) {
+        this.maxInactiveIntervalSeconds = maxInactiveIntervalSeconds;
+    }
+}
@@ -0,0 +1,80 @@
+package greetings.timing;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import timing.Timings;
+
+// proxied requests carry the trace id, and the proxied service's timings end up in Server-Timing
+@Configuration
+class TimingZuulFilters {
+
+    private static final String START = TimingZuulFilters.class.getName() + ".start";
+
+    @Bean
+    ZuulFilter traceZuulFilter() {
+        return new TimingZuulFilter("pre", 20) {
+
+            @Override
+            public Object run() {
+                RequestContext context = RequestContext.getCurrentContext();
+                context.addZuulRequestHeader(Timings.TRACE_ID_HEADER, Timings.current().getTraceId());
+                context.set(START, System.nanoTime());
+                return null;
+            }
+        };
+    }
+
+    // before SendResponseFilter (1000) copies the origin's headers to the client
+    @Bean
+    ZuulFilter hopTimingZuulFilter() {
+        return new TimingZuulFilter("post", 900) {
+
+            @Override
+            public Object run() {
+                RequestContext context = RequestContext.getCurrentContext();
+                Timings timings = Timings.current();
+                Object start = context.get(START);
+                if (start != null) {
+                    timings.stage("zuul." + context.get("serviceId"), System.nanoTime() - (Long) start);
+                }
+                for (Pair<String, String> header : context.getOriginResponseHeaders()) {
+                    if (Timings.HOP_TIMING_HEADER.equalsIgnoreCase(header.first())) {
+                        timings.hops(header.second());
+                    }
+                }
+                context.getZuulResponseHeaders().removeIf(h -> Timings.HOP_TIMING_HEADER.equalsIgnoreCase(h.first()));
+                return null;
+            }
+        };
+    }
+
+    private static abstract class TimingZuulFilter extends ZuulFilter {
+
+        private final String type;
+
+        private final int order;
+
+        TimingZuulFilter(String type, int order) {
+            this.type = type;
+            this.order = order;
+        }
+
+        @Override
+        public String filterType() {
+            return this.type;
+        }
+
+        @Override
+        public int filterOrder() {
+            return this.order;
+        }
+
+        @Override
+        public boolean shouldFilter() {
+            return Timings.current() != null;
+        }
+    }
+}
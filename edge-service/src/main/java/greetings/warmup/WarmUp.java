@@ -0,0 +1,146 @@
+package greetings.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+import com.netflix.loadbalancer.ILoadBalancer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pays for lazy initialization before traffic arrives: Ribbon load balancers for the
+ * configured services, then synthetic requests against this node that go through the
+ * servlet filters, Feign and Hystrix, the {@code RestTemplate} and the message converters.
+ * Eureka only reports the instance UP afterwards, because it registers with
+ * {@code eureka.instance.initial-status=STARTING}, and not at all once the context is
+ * closing, when graceful shutdown has taken it out of service.
+ */
+class WarmUp implements ApplicationListener<ContextClosedEvent> {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final WarmUpProperties properties;
+
+    private final SpringClientFactory clientFactory;
+
+    private final ApplicationInfoManager applicationInfoManager;
+
+    private final Object statusLock = new Object();
+
+    private volatile boolean closing;
+
+    WarmUp(WarmUpProperties properties, SpringClientFactory clientFactory,
+           ApplicationInfoManager applicationInfoManager) {
+        this.properties = properties;
+        this.clientFactory = clientFactory;
+        this.applicationInfoManager = applicationInfoManager;
+    }
+
+    void run(int port) {
+        long start = System.currentTimeMillis();
+        try {
+            if (this.properties.isEnabled()) {
+                this.createLoadBalancers();
+                this.sendRequests(port, start + this.properties.getTimeoutMillis());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (RuntimeException e) {
+            log.warn("warm-up failed, reporting UP anyway", e);
+        }
+        finally {
+            synchronized (this.statusLock) {
+                if (this.closing) {
+                    log.info(String.format("shutting down after %d ms of warm-up, not reporting UP",
+                            System.currentTimeMillis() - start));
+                }
+                else {
+                    this.applicationInfoManager.setInstanceStatus(InstanceStatus.UP);
+                    log.info(String.format("warmed up in %d ms, reporting UP", System.currentTimeMillis() - start));
+                }
+            }
+        }
+    }
+
+    // published before any lifecycle bean stops, so before the instance is taken out of service
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        synchronized (this.statusLock) {
+            this.closing = true;
+        }
+    }
+
+    private void createLoadBalancers() {
+        for (String service : this.properties.getServices()) {
+            ILoadBalancer loadBalancer = this.clientFactory.getLoadBalancer(service);
+            loadBalancer.chooseServer("default");
+            log.info(String.format("%s: %d servers", service, loadBalancer.getAllServers().size()));
+        }
+    }
+
+    private void sendRequests(int port, long deadline) throws InterruptedException {
+        if (this.properties.getPaths().isEmpty() || this.properties.getRequests() <= 0) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(this.properties.getConcurrency());
+        AtomicInteger next = new AtomicInteger();
+        long[] firstAndLast = new long[2];
+        for (int i = 0; i < this.properties.getConcurrency(); i++) {
+            executor.execute(() -> {
+                int request;
+                while (!this.closing && (request = next.getAndIncrement()) < this.properties.getRequests()
+                        && System.currentTimeMillis() < deadline) {
+                    String path = this.properties.getPaths().get(request % this.properties.getPaths().size());
+                    long nanos = this.get("http://127.0.0.1:" + port + path);
+                    if (request == 0) {
+                        firstAndLast[0] = nanos;
+                    }
+                    else if (request == this.properties.getRequests() - 1) {
+                        firstAndLast[1] = nanos;
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+            log.warn("warm-up requests timed out");
+        }
+        log.info(String.format("%d warm-up requests, the first took %.1f ms and the last %.1f ms",
+                Math.min(next.get(), this.properties.getRequests()), firstAndLast[0] / 1e6, firstAndLast[1] / 1e6));
+    }
+
+    // the status doesn't matter, a 401 on the secure profile has still been through the filters
+    private long get(String url) {
+        long start = System.nanoTime();
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(1000);
+            connection.setReadTimeout(5000);
+            InputStream body = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (body != null) {
+                try (InputStream in = body) {
+                    StreamUtils.drain(in);
+                }
+            }
+        }
+        catch (IOException e) {
+            log.debug("warm-up request to " + url + " failed", e);
+        }
+        return System.nanoTime() - start;
+    }
+}
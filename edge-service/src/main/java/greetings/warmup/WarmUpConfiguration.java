@@ -0,0 +1,36 @@
+package greetings.warmup;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WarmUpConfiguration {
+
+    @Bean
+    @ConfigurationProperties("edge.warmup")
+    WarmUpProperties warmUpProperties() {
+        return new WarmUpProperties();
+    }
+
+    @Bean
+    WarmUp warmUp(WarmUpProperties properties, SpringClientFactory clientFactory,
+                  ApplicationInfoManager applicationInfoManager) {
+        return new WarmUp(properties, clientFactory, applicationInfoManager);
+    }
+
+    // off the main thread, the node has to be serving to warm itself up
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> warmUpListener(WarmUp warmUp) {
+        return event -> {
+            int port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", Integer.class, 0);
+            Thread thread = new Thread(() -> warmUp.run(port), "warm-up");
+            thread.setDaemon(true);
+            thread.start();
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package greetings.warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class WarmUpProperties {
+
+    // off reports UP as soon as the application is ready
+    private boolean enabled = true;
+
+    // Ribbon load balancers to create and populate up front
+    private List<String> services = new ArrayList<>(Arrays.asList("greetings-service", "auth-service"));
+
+    // requested on this node, through the whole filter chain, before it reports UP
+    private List<String> paths = new ArrayList<>(Arrays.asList("/api/feign/warmup", "/api/resttemplate/warmup"));
+
+    // the paths call greetings-service for real, so none are sent unless asked for
+    private int requests = 0;
+
+    private int concurrency = 4;
+
+    // reports UP regardless once this has passed
+    private long timeoutMillis = 30_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getServices() {
+        return services;
+    }
+
+    public void setServices(List<String> services) {
+        this.services = services;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public int getRequests() {
+        return requests;
+    }
+
+    public void setRequests(int requests) {
+        this.requests = requests;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+}
@@ -0,0 +1,63 @@
+package greetings.admission;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AdmissionFilterTests {
+
+    @Test
+    public void unauthenticatedCallersShareTheAnonymousTenant() throws Exception {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getWeights().put("html5", 3);
+        List<String> gauges = new ArrayList<>();
+        AdmissionFilter filter = new AdmissionFilter(properties, (name, value) -> gauges.add(name), null);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/feign/world");
+        request.addHeader("X-Client-Id", "html5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(1, filter.getTenants().size());
+        assertTrue(filter.getTenants().containsKey(AdmissionFilter.ANONYMOUS));
+        assertTrue(gauges.contains("admission.anonymous.queue"));
+    }
+
+    // the handed-off work finishing before the filter chain has even returned
+    @Test
+    public void releasesAsyncRequestsThatCompleteBeforeTheChainReturns() throws Exception {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getRoutes().put("/api", 1);
+        AdmissionFilter filter = new AdmissionFilter(properties, null, null);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/feign/world");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            MockAsyncContext asyncContext = (MockAsyncContext) req.startAsync();
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onComplete(new AsyncEvent(asyncContext));
+            }
+        });
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/feign/world"), response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, filter.getTenants().get(AdmissionFilter.ANONYMOUS).getActive());
+    }
+
+    @Test
+    public void keepsTenantNamesToOneMetricSegment() {
+        assertEquals("html5", AdmissionFilter.metricName("html5"));
+        assertEquals("a_b_c_d", AdmissionFilter.metricName("a.b c/d"));
+    }
+}
@@ -0,0 +1,88 @@
+package greetings.admission;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class FairAdmissionTests {
+
+    private final Map<String, Integer> weights = Collections.singletonMap("gold", 3);
+
+    private final FairAdmission admission = new FairAdmission(1, 100,
+            tenant -> this.weights.getOrDefault(tenant, 1));
+
+    @Test
+    public void sharesContendedCapacityByWeight() throws Exception {
+        FairAdmission.Tenant holder = this.admission.acquire("gold", 0);
+        List<String> granted = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            threads.add(this.waitFor(i % 2 == 0 ? "gold" : "bronze", granted));
+        }
+        this.await(() -> this.queued("gold") == 20 && this.queued("bronze") == 20);
+
+        for (int i = 0; i < 20; i++) {
+            this.admission.release(holder);
+            int expected = i + 1;
+            this.await(() -> granted.size() == expected);
+            holder = this.admission.getTenants().get(granted.get(i));
+        }
+        assertEquals(15, Collections.frequency(granted, "gold"));
+        assertEquals(5, Collections.frequency(granted, "bronze"));
+
+        threads.forEach(Thread::interrupt);
+    }
+
+    @Test
+    public void lendsIdleCapacityToASingleTenant() throws Exception {
+        FairAdmission admission = new FairAdmission(4, 100, tenant -> 1);
+        for (int i = 0; i < 4; i++) {
+            FairAdmission.Tenant tenant = admission.acquire("bronze", 0);
+            assertNotNull(tenant);
+            assertEquals(0, tenant.getLastWaitMillis());
+        }
+        assertNull(admission.acquire("bronze", 10));
+        assertEquals(4, admission.getTenants().get("bronze").getActive());
+    }
+
+    @Test
+    public void rejectsOnceTheTenantQueueIsFull() throws Exception {
+        FairAdmission admission = new FairAdmission(1, 0, tenant -> 1);
+        assertNotNull(admission.acquire("bronze", 0));
+        assertNull(admission.acquire("bronze", 1000));
+        assertEquals(1, admission.getTenants().get("bronze").getRejected());
+    }
+
+    private Thread waitFor(String tenant, List<String> granted) {
+        Thread thread = new Thread(() -> {
+            try {
+                if (this.admission.acquire(tenant, TimeUnit.SECONDS.toMillis(30)) != null) {
+                    granted.add(tenant);
+                }
+            }
+            catch (InterruptedException e) {
+                // test over
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private int queued(String tenant) {
+        FairAdmission.Tenant t = this.admission.getTenants().get(tenant);
+        return t == null ? 0 : t.getQueued();
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package greetings.hashing;
+
+import com.netflix.loadbalancer.BaseLoadBalancer;
+import com.netflix.loadbalancer.Server;
+import com.netflix.loadbalancer.ServerStats;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class ConsistentHashRuleTests {
+
+    private static final Function<String, String> ID = member -> member;
+
+    @Test
+    public void removingAMemberOnlyMovesItsKeys() {
+        List<String> members = Arrays.asList("a", "b", "c", "d", "e");
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(members, ID, 160);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(members.subList(0, 4), ID, 160);
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String key = "key-" + i;
+            String owner = before.choose(key, member -> true);
+            owned.merge(owner, 1, Integer::sum);
+            if (!owner.equals("e")) {
+                assertEquals(key, owner, after.choose(key, member -> true));
+            }
+        }
+        // and spreads them roughly evenly in the first place
+        for (String member : members) {
+            assertTrue(owned.toString(), owned.get(member) > 1_000 && owned.get(member) < 3_000);
+        }
+    }
+
+    @Test
+    public void noMemberExceedsTheLoadFactor() {
+        List<String> members = Arrays.asList("a", "b", "c", "d");
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(members, ID, 160);
+        Map<String, Integer> load = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            // one hot key and a few cold ones
+            String key = i % 2 == 0 ? "hot" : "key-" + i % 7;
+            double capacity = Math.ceil(1.25 * (i + 1) / members.size());
+            String member = ring.choose(key, m -> load.getOrDefault(m, 0) < capacity);
+            load.merge(member, 1, Integer::sum);
+            assertTrue(load.toString(), load.get(member) <= capacity);
+        }
+    }
+
+    @Test
+    public void ruleKeepsAKeyOnOneServerUntilItIsBusy() {
+        BaseLoadBalancer loadBalancer = new BaseLoadBalancer();
+        loadBalancer.addServers(Arrays.asList(new Server("a", 80), new Server("b", 80), new Server("c", 80)));
+        ConsistentHashRule rule = new ConsistentHashRule();
+        rule.setLoadBalancer(loadBalancer);
+
+        String previous = HashKeys.enter("world");
+        try {
+            Server first = rule.choose("default");
+            assertEquals(first, rule.choose("default"));
+
+            ServerStats stats = loadBalancer.getLoadBalancerStats().getSingleServerStat(first);
+            stats.incrementActiveRequestsCount();
+            stats.incrementActiveRequestsCount();
+            assertNotEquals(first, rule.choose("default"));
+
+            stats.decrementActiveRequestsCount();
+            stats.decrementActiveRequestsCount();
+            assertEquals(first, rule.choose("default"));
+        }
+        finally {
+            HashKeys.exit(previous);
+        }
+    }
+}
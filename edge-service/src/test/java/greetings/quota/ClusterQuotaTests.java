@@ -0,0 +1,86 @@
+package greetings.quota;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.*;
+
+public class ClusterQuotaTests {
+
+    @Test
+    public void bucketAdmitsTheBurstThenTheRate() {
+        AtomicLong now = new AtomicLong();
+        QuotaBucket bucket = new QuotaBucket(200, 10, now::get);
+        assertEquals(10, admitted(bucket, 100));
+
+        // one permit every 5 ms from then on, however often it's asked
+        long admitted = 0;
+        for (int millis = 1; millis <= 1000; millis++) {
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            admitted += admitted(bucket, 3);
+        }
+        assertEquals(200, admitted);
+
+        // an idle bucket saves up no more than the burst
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(10, admitted(bucket, 100));
+    }
+
+    @Test
+    public void bucketAdmitsTheBurstOnceAcrossThreads() throws Exception {
+        QuotaBucket bucket = new QuotaBucket(200, 10, () -> 0);
+        LongAdder admitted = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> admitted.add(admitted(bucket, 1000)));
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(10, admitted.sum());
+    }
+
+    @Test
+    public void bucketFollowsRateChanges() {
+        QuotaBucket bucket = new QuotaBucket(0, 1);
+        assertFalse(bucket.tryAcquire());
+        bucket.setRate(1000);
+        assertTrue(bucket.tryAcquire());
+        assertEquals(2, bucket.drainAttempts());
+        assertEquals(0, bucket.drainAttempts());
+    }
+
+    @Test
+    public void sharesNeverAddUpToMoreThanThePool() {
+        double[] demands = {0, 5, 100, 1000};
+        double total = 0;
+        for (double demand : demands) {
+            total += demand;
+        }
+        double sum = 0;
+        for (double demand : demands) {
+            double share = ClusterQuota.share(90, 0.1, demands.length, demand, total);
+            assertTrue(share >= 0.1 * 90 / demands.length - 1e-9);
+            sum += share;
+        }
+        assertEquals(90, sum, 1e-9);
+        assertEquals(90 / 4d, ClusterQuota.share(90, 0.1, 4, 0, 0), 1e-9);
+    }
+
+    private static int admitted(QuotaBucket bucket, int attempts) {
+        int admitted = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (bucket.tryAcquire()) {
+                admitted++;
+            }
+        }
+        return admitted;
+    }
+}
@@ -0,0 +1,96 @@
+package greetings.routing;
+
+import org.junit.Test;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.discovery.DiscoveryClientRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.discovery.SimpleServiceRouteMapper;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class CompiledRouteLocatorTests {
+
+    @Test
+    public void agreesWithAntPathMatcher() {
+        List<String> patterns = Arrays.asList("/a/**", "/a/b", "/a/*", "/a/*/c", "/*/b/**", "/b/**/c",
+                "/c/d?", "/c/{id}", "/d/", "/", "/**");
+        List<String> paths = Arrays.asList("/", "/a", "/a/", "/a/b", "/a/b/", "/a/x", "/a/x/c", "/x/b",
+                "/x/b/y/z", "/b/q/r/c", "/c/d1", "/c/42", "/d/", "/d", "/e//f");
+        AntPathMatcher pathMatcher = new AntPathMatcher();
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> ordered = new ArrayList<>(patterns);
+            Collections.shuffle(ordered, random);
+            RouteTrie<String> trie = new RouteTrie<>();
+            ordered.forEach(pattern -> trie.add(pattern, pattern));
+            for (String path : paths) {
+                String expected = ordered.stream().filter(pattern -> pathMatcher.match(pattern, path))
+                        .findFirst().orElse(null);
+                assertEquals(ordered + " " + path, expected, trie.match(path));
+            }
+        }
+    }
+
+    // how much faster it is shows under load, see the load harness's routes scenario
+    @Test
+    public void resolvesLikeTheDiscoveryLocator() {
+        int services = 5_000;
+        DiscoveryClient discovery = discoveryOf(IntStream.range(0, services)
+                .mapToObj(i -> "service-" + i).collect(Collectors.toList()));
+        RouteLocator linear = new DiscoveryClientRouteLocator("", discovery, zuulProperties(), new SimpleServiceRouteMapper());
+        RouteLocator compiled = new CompiledRouteLocator("", discovery, zuulProperties(), new SimpleServiceRouteMapper());
+
+        List<String> paths = IntStream.range(0, 1_000)
+                .mapToObj(i -> "/service-" + (i * 7 % services) + "/greet/" + i)
+                .collect(Collectors.toList());
+        for (String path : paths) {
+            Route expected = linear.getMatchingRoute(path);
+            Route actual = compiled.getMatchingRoute(path);
+            assertNotNull(path, actual);
+            assertEquals(path, expected.getId(), actual.getId());
+            assertEquals(path, expected.getPath(), actual.getPath());
+            assertEquals(path, expected.getLocation(), actual.getLocation());
+        }
+        assertNull(linear.getMatchingRoute("/nobody/home"));
+        assertNull(compiled.getMatchingRoute("/nobody/home"));
+    }
+
+    private static ZuulProperties zuulProperties() {
+        ZuulProperties properties = new ZuulProperties();
+        properties.setIgnoreLocalService(false);
+        return properties;
+    }
+
+    private static DiscoveryClient discoveryOf(List<String> services) {
+        return new DiscoveryClient() {
+
+            @Override
+            public String description() {
+                return "fixed";
+            }
+
+            @Override
+            public ServiceInstance getLocalServiceInstance() {
+                return null;
+            }
+
+            @Override
+            public List<ServiceInstance> getInstances(String serviceId) {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public List<String> getServices() {
+                return services;
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package greetings.session;
+
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.session.MapSession;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CompactSessionSerializerTests {
+
+    private final CompactSessionSerializer serializer = new CompactSessionSerializer();
+
+    @Test
+    public void roundTripsTheOAuth2ClientContext() throws Exception {
+        MapSession session = this.ssoSession();
+        MapSession copy = this.serializer.deserialize(this.serializer.serialize(session));
+
+        assertEquals(session.getId(), copy.getId());
+        assertEquals(session.getLastAccessedTime(), copy.getLastAccessedTime());
+        OAuth2ClientContext context = copy.getAttribute("scopedTarget.oauth2ClientContext");
+        assertEquals("access-token", context.getAccessToken().getValue());
+        assertEquals("refresh-token", context.getAccessToken().getRefreshToken().getValue());
+        assertEquals(Collections.singleton("openid"), context.getAccessToken().getScope());
+        SecurityContextImpl securityContext = copy.getAttribute("SPRING_SECURITY_CONTEXT");
+        assertEquals("jlong", securityContext.getAuthentication().getName());
+    }
+
+    @Test
+    public void isSmallerThanJavaSerialization() throws Exception {
+        MapSession session = this.ssoSession();
+        assertTrue(this.serializer.serialize(session).length < javaSerialize(session).length);
+    }
+
+    @Test
+    public void redisSerializerRoundTripsEachAttribute() {
+        CompactRedisSerializer redisSerializer = new CompactRedisSerializer(this.serializer);
+        MapSession session = this.ssoSession();
+        for (String name : session.getAttributeNames()) {
+            Object copy = redisSerializer.deserialize(redisSerializer.serialize(session.getAttribute(name)));
+            assertEquals(session.getAttribute(name).getClass(), copy.getClass());
+        }
+        OAuth2ClientContext context = (OAuth2ClientContext) redisSerializer.deserialize(
+                redisSerializer.serialize(session.getAttribute("scopedTarget.oauth2ClientContext")));
+        assertEquals("access-token", context.getAccessToken().getValue());
+        assertEquals(42L, redisSerializer.deserialize(redisSerializer.serialize(42L)));
+        assertNull(redisSerializer.deserialize(null));
+    }
+
+    @Test
+    public void offHeapRepositoryReusesBuffers() throws Exception {
+        OffHeapSessionRepository repository = new OffHeapSessionRepository(this.serializer, null);
+        MapSession session = this.ssoSession();
+        repository.save(session);
+        assertEquals(0, repository.pooled());
+
+        session.setAttribute("visits", 2L);
+        repository.save(session);
+        assertEquals(1, repository.pooled());
+        Long visits = repository.getSession(session.getId()).getAttribute("visits");
+        assertEquals(2L, (long) visits);
+
+        MapSession other = this.ssoSession();
+        repository.save(other);
+        assertEquals(0, repository.pooled());
+
+        repository.delete(session.getId());
+        assertEquals(1, repository.pooled());
+        assertNull(repository.getSession(session.getId()));
+        assertNotNull(repository.getSession(other.getId()));
+    }
+
+    @Test
+    public void offHeapRepositoryEvictsExpiredSessions() throws Exception {
+        OffHeapSessionRepository repository = new OffHeapSessionRepository(this.serializer, null);
+        MapSession session = this.ssoSession();
+        session.setMaxInactiveIntervalInSeconds(1);
+        session.setLastAccessedTime(System.currentTimeMillis() - 5000);
+        repository.save(session);
+        assertEquals(1, repository.size());
+
+        repository.evictExpiredSessions();
+        assertEquals(0, repository.size());
+    }
+
+    private MapSession ssoSession() {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("access-token");
+        token.setTokenType("bearer");
+        token.setExpiration(new Date(System.currentTimeMillis() + 3600_000));
+        token.setRefreshToken(new DefaultOAuth2RefreshToken("refresh-token"));
+        token.setScope(Collections.singleton("openid"));
+        DefaultOAuth2ClientContext clientContext = new DefaultOAuth2ClientContext();
+        clientContext.setAccessToken(token);
+
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "html5",
+                AuthorityUtils.createAuthorityList("ROLE_USER"), true, Collections.singleton("openid"),
+                null, null, null, null);
+        UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken("jlong", "N/A",
+                AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_USER"));
+        user.setDetails(Collections.singletonMap("name", "jlong"));
+
+        SecurityContextImpl securityContext = new SecurityContextImpl();
+        securityContext.setAuthentication(new OAuth2Authentication(request, user));
+
+        MapSession session = new MapSession();
+        session.setAttribute("scopedTarget.oauth2ClientContext", clientContext);
+        session.setAttribute("SPRING_SECURITY_CONTEXT", securityContext);
+        return session;
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,233 @@
+package launcher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.jar.JarFile;
+
+/**
+ * Runs several modules in one JVM, each in its own {@link ModuleClassLoader} with its own
+ * {@code SpringApplication}, configuration and embedded container. They share the JDK,
+ * Tomcat, Jackson and logging classes, the heap and the JIT and GC threads, and on JDK 21+
+ * one carrier pool for all their request threads ({@code edge.threads.virtual}).
+ * <p>
+ * Modules run from the layout the {@code cds} Maven profile builds, so build them with
+ * {@code mvn -Pcds package} first:
+ *
+ * <pre>
+ * java -jar launcher/target/launcher-1.0.0-SNAPSHOT.jar --launcher.home=.
+ *     --launcher.modules=service-registry,auth-service,greetings-service,edge-service,html5-client
+ *     edge-service:--spring.profiles.active=secure
+ * </pre>
+ *
+ * The first module starts on its own, the registry the others wait for, the rest start
+ * together. Arguments prefixed with a module name go to that module only, the others to
+ * all of them. They stop in reverse order.
+ */
+public class Launcher {
+
+    private static final Log log = LogFactory.getLog(Launcher.class);
+
+    // JVM-wide settings every module would otherwise trip over each other with
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        // the same MBean names from every module
+        DEFAULTS.put("spring.jmx.enabled", "false");
+        DEFAULTS.put("endpoints.jmx.enabled", "false");
+        DEFAULTS.put("edge.threads.virtual", String.valueOf(isVirtualThreadsSupported()));
+    }
+
+    private final List<Module> started = new CopyOnWriteArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        new Launcher().launch(args);
+    }
+
+    void launch(String[] args) throws Exception {
+        File home = new File(option(args, "--launcher.home=", "."));
+        List<String> modules = Arrays.asList(option(args,
+                "--launcher.modules=", "service-registry,auth-service,greetings-service,edge-service,html5-client")
+                .split(","));
+        DEFAULTS.forEach((key, value) -> {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, value);
+            }
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "launcher-shutdown"));
+
+        long start = System.currentTimeMillis();
+        this.start(new Module(modules.get(0), new File(home, modules.get(0)), moduleArgs(args, modules.get(0))));
+        ExecutorService starters = Executors.newCachedThreadPool();
+        List<Future<?>> starting = new ArrayList<>();
+        for (String name : modules.subList(1, modules.size())) {
+            Module module = new Module(name, new File(home, name), moduleArgs(args, name));
+            starting.add(starters.submit(() -> {
+                this.start(module);
+                return null;
+            }));
+        }
+        for (Future<?> future : starting) {
+            future.get();
+        }
+        starters.shutdown();
+        log.info(String.format("all %d modules started in %d ms", modules.size(), System.currentTimeMillis() - start));
+    }
+
+    private void start(Module module) throws Exception {
+        long start = System.currentTimeMillis();
+        module.start();
+        this.started.add(module);
+        log.info(String.format("started %s in %d ms", module.name, System.currentTimeMillis() - start));
+    }
+
+    private void stop() {
+        List<Module> modules = new ArrayList<>(this.started);
+        Collections.reverse(modules);
+        for (Module module : modules) {
+            try {
+                module.stop();
+            }
+            catch (Exception e) {
+                log.warn("couldn't stop " + module.name, e);
+            }
+        }
+    }
+
+    private static String option(String[] args, String prefix, String defaultValue) {
+        return Arrays.stream(args).filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length())).findFirst().orElse(defaultValue);
+    }
+
+    private static String[] moduleArgs(String[] args, String module) {
+        List<String> moduleArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--launcher.")) {
+                continue;
+            }
+            int colon = arg.indexOf(":--");
+            if (colon < 0) {
+                moduleArgs.add(arg);
+            }
+            else if (arg.substring(0, colon).equals(module)) {
+                moduleArgs.add(arg.substring(colon + 1));
+            }
+        }
+        return moduleArgs.toArray(new String[moduleArgs.size()]);
+    }
+
+    private static boolean isVirtualThreadsSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        }
+        catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // a module's SpringApplication, only reachable through reflection from here
+    private static class Module {
+
+        private final String name;
+
+        private final File target;
+
+        private final String[] args;
+
+        private ModuleClassLoader classLoader;
+
+        private Object context;
+
+        Module(String name, File module, String[] args) {
+            this.name = name;
+            this.target = new File(module, "target");
+            this.args = args;
+        }
+
+        void start() throws Exception {
+            this.classLoader = new ModuleClassLoader(this.name, this.classPath(), Launcher.class.getClassLoader());
+            this.context = this.call(() -> {
+                Class<?> startClass = this.classLoader.loadClass(this.startClass());
+                Class<?> springApplication = this.classLoader.loadClass("org.springframework.boot.SpringApplication");
+                Object resourceLoader = this.classLoader.loadClass("org.springframework.core.io.DefaultResourceLoader")
+                        .getConstructor(ClassLoader.class).newInstance(this.classLoader);
+                Object application = springApplication.getConstructor(
+                        this.classLoader.loadClass("org.springframework.core.io.ResourceLoader"), Object[].class)
+                        .newInstance(resourceLoader, new Object[]{startClass});
+                // the launcher stops the modules, in order
+                springApplication.getMethod("setRegisterShutdownHook", boolean.class).invoke(application, false);
+                return springApplication.getMethod("run", String[].class).invoke(application, (Object) this.args);
+            });
+        }
+
+        void stop() throws Exception {
+            if (this.context != null) {
+                this.call(() -> this.context.getClass().getMethod("close").invoke(this.context));
+                this.classLoader.close();
+            }
+        }
+
+        // on a thread of the module's own, so the threads it starts inherit its class loader
+        private Object call(Callable<Object> task) throws Exception {
+            FutureTask<Object> future = new FutureTask<>(task);
+            Thread thread = new Thread(future, this.name);
+            thread.setContextClassLoader(this.classLoader);
+            thread.start();
+            try {
+                return future.get();
+            }
+            catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+
+        // the module's own classes and every library the launcher doesn't already have
+        private URL[] classPath() throws IOException {
+            Set<String> shared = new HashSet<>();
+            ClassLoader parent = Launcher.class.getClassLoader();
+            if (parent instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) parent).getURLs()) {
+                    shared.add(fileName(url.getPath()));
+                }
+            }
+            List<URL> urls = new ArrayList<>();
+            urls.add(this.find(name -> name.endsWith("-cds.jar")).toURI().toURL());
+            File[] libraries = new File(this.target, "cds/lib").listFiles((dir, name) -> name.endsWith(".jar"));
+            if (libraries == null) {
+                throw new IllegalStateException("no libraries in " + this.target + "/cds/lib, run mvn -Pcds package first");
+            }
+            for (File library : libraries) {
+                if (!shared.contains(library.getName())) {
+                    urls.add(library.toURI().toURL());
+                }
+            }
+            return urls.toArray(new URL[urls.size()]);
+        }
+
+        private String startClass() throws IOException {
+            try (JarFile jar = new JarFile(this.find(name -> name.endsWith(".jar") && !name.endsWith("-cds.jar")))) {
+                return jar.getManifest().getMainAttributes().getValue("Start-Class");
+            }
+        }
+
+        private File find(java.util.function.Predicate<String> name) {
+            File[] files = this.target.listFiles((dir, n) -> name.test(n));
+            if (files == null || files.length == 0) {
+                throw new IllegalStateException("nothing built in " + this.target + ", run mvn -Pcds package first");
+            }
+            return files[0];
+        }
+
+        private static String fileName(String path) {
+            String trimmed = path.endsWith("!/") ? path.substring(0, path.length() - 2) : path;
+            return trimmed.substring(trimmed.lastIndexOf('/') + 1);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package launcher;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * One module's classes and libraries, looked up here before the launcher's class path,
+ * so that modules with clashing packages, library versions and static state (Archaius,
+ * Hystrix and Eureka all keep JVM-wide singletons) stay apart. Only the JDK and the
+ * {@link #SHARED shared} libraries, which every module passes objects of between each
+ * other or which are closed over their own dependencies, come from the launcher.
+ */
+class ModuleClassLoader extends URLClassLoader {
+
+    static final String[] SHARED = {
+            "java.", "javax.", "sun.", "jdk.",
+            // the servlet container, so Tomcat and the servlet API are one
+            "org.apache.catalina.", "org.apache.coyote.", "org.apache.tomcat.", "org.apache.juli.", "org.apache.naming.",
+            "org.apache.el.",
+            // logging, one configuration for the whole JVM
+            "org.slf4j.", "ch.qos.logback.",
+            "com.fasterxml.jackson.core.", "com.fasterxml.jackson.databind.", "com.fasterxml.jackson.annotation."
+    };
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final String module;
+
+    ModuleClassLoader(String module, URL[] urls, ClassLoader parent) {
+        super(urls, parent);
+        this.module = module;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                loaded = isShared(name) ? this.parentFirst(name) : this.childFirst(name);
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    // the module's own configuration, spring.factories and so on, before the launcher's
+    @Override
+    public URL getResource(String name) {
+        URL resource = findResource(name);
+        return resource != null ? resource : super.getResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        List<URL> resources = new ArrayList<>(Collections.list(findResources(name)));
+        if (getParent() != null) {
+            resources.addAll(Collections.list(getParent().getResources(name)));
+        }
+        return Collections.enumeration(resources);
+    }
+
+    @Override
+    public String toString() {
+        return "ModuleClassLoader[" + this.module + "]";
+    }
+
+    private Class<?> parentFirst(String name) throws ClassNotFoundException {
+        try {
+            return getParent().loadClass(name);
+        }
+        catch (ClassNotFoundException e) {
+            return findClass(name);
+        }
+    }
+
+    private Class<?> childFirst(String name) throws ClassNotFoundException {
+        try {
+            return findClass(name);
+        }
+        catch (ClassNotFoundException e) {
+            return getParent().loadClass(name);
+        }
+    }
+
+    static boolean isShared(String name) {
+        for (String prefix : SHARED) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
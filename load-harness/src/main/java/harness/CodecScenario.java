@@ -0,0 +1,80 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls {@code harness.codec.paths} on one service, once asking for JSON and once for
+ * Smile, and reports bytes per response next to latency and throughput. Point it at
+ * greetings-service for the greeting, or at auth-service for the {@code /user} principal:
+ *
+ * <pre>
+ * --harness.scenario=codec --harness.target=http://localhost:9191 --harness.codec.paths=/uaa/user --harness.bearer-token=...
+ * </pre>
+ */
+@Component
+class CodecScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final String[] paths;
+
+    @Autowired
+    CodecScenario(CloseableHttpClient httpClient,
+                  @Value("${harness.codec.paths:/greet/world}") String[] paths) {
+        this.httpClient = httpClient;
+        this.paths = paths;
+    }
+
+    @Override
+    public String getName() {
+        return "codec";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        Map<String, String> formats = new LinkedHashMap<>();
+        formats.put("json", "application/json");
+        formats.put("smile", "application/x-jackson-smile");
+        for (String path : this.paths) {
+            String uri = properties.getTarget() + path;
+            for (Map.Entry<String, String> format : formats.entrySet()) {
+                LongAdder bytes = new LongAdder();
+                Report report = loadGenerator.run(format.getKey() + " " + path, properties.getConcurrency(),
+                        TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()), () -> () -> {
+                            HttpGet get = new HttpGet(uri);
+                            get.setHeader(HttpHeaders.ACCEPT, format.getValue());
+                            if (properties.getBearerToken() != null) {
+                                get.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + properties.getBearerToken());
+                            }
+                            try (CloseableHttpResponse response = this.httpClient.execute(get)) {
+                                bytes.add(EntityUtils.toByteArray(response.getEntity()).length);
+                                Header contentType = response.getFirstHeader(HttpHeaders.CONTENT_TYPE);
+                                return response.getStatusLine().getStatusCode() == 200 && contentType != null
+                                        && contentType.getValue().startsWith(format.getValue());
+                            }
+                        });
+                log.info(String.format("%s as %s: %d bytes per response, p50 %.2f ms, p99 %.2f ms at %.0f requests/s, " +
+                                "%d of %d failed", path, format.getKey(), bytes.sum() / Math.max(1, report.getRequests()),
+                        report.percentileMillis(50), report.percentileMillis(99), report.getThroughput(),
+                        report.getFailures(), report.getRequests()));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Doubles the number of concurrent clients until a target stops meeting the error rate
+ * and p99 budget, e.g. an edge-service on platform threads against one started with
+ * {@code edge.threads.virtual=true}:
+ *
+ * <pre>
+ * --harness.scenario=concurrency
+ * --harness.concurrency-targets.platform=http://localhost:8082
+ * --harness.concurrency-targets.virtual=http://localhost:8084
+ * </pre>
+ */
+@Component
+class ConcurrencyScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final String path;
+
+    private final int startConcurrency;
+
+    private final int maxConcurrency;
+
+    private final double maxErrorRate;
+
+    private final double maxP99Millis;
+
+    @Autowired
+    ConcurrencyScenario(CloseableHttpClient httpClient,
+                        @Value("${harness.concurrency-path:/api/resttemplate/world}") String path,
+                        @Value("${harness.concurrency-start:25}") int startConcurrency,
+                        @Value("${harness.concurrency-max:6400}") int maxConcurrency,
+                        @Value("${harness.concurrency-max-error-rate:0.01}") double maxErrorRate,
+                        @Value("${harness.concurrency-max-p99-millis:1000}") double maxP99Millis) {
+        this.httpClient = httpClient;
+        this.path = path;
+        this.startConcurrency = startConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.maxErrorRate = maxErrorRate;
+        this.maxP99Millis = maxP99Millis;
+    }
+
+    @Override
+    public String getName() {
+        return "concurrency";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        Map<String, String> targets = properties.getConcurrencyTargets().isEmpty() ?
+                Collections.singletonMap("target", properties.getTarget()) : properties.getConcurrencyTargets();
+        Map<String, Integer> sustainable = new LinkedHashMap<>();
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            String uri = target.getValue() + this.path;
+            int best = 0;
+            for (int concurrency = this.startConcurrency; concurrency <= this.maxConcurrency; concurrency *= 2) {
+                Report report = loadGenerator.run(target.getKey() + " x" + concurrency, concurrency,
+                        TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()),
+                        () -> () -> this.get(uri, properties.getBearerToken()));
+                if (report.getErrorRate() > this.maxErrorRate || report.percentileMillis(99) > this.maxP99Millis) {
+                    break;
+                }
+                best = concurrency;
+            }
+            sustainable.put(target.getKey(), best);
+        }
+        sustainable.forEach((name, concurrency) ->
+                log.info(String.format("%s: sustained %d concurrent clients (error rate <= %.2f%%, p99 <= %.0fms)",
+                        name, concurrency, this.maxErrorRate * 100, this.maxP99Millis)));
+    }
+
+    private boolean get(String uri, String bearerToken) throws Exception {
+        HttpGet get = new HttpGet(uri);
+        if (bearerToken != null) {
+            get.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken);
+        }
+        try (CloseableHttpResponse response = this.httpClient.execute(get)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode() < 400;
+        }
+    }
+}
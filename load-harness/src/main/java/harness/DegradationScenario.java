@@ -0,0 +1,128 @@
+package harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Degrades the instances at {@code harness.degradation.instances} (started with the
+ * {@code chaos} profile) through their {@code /chaos} endpoint, one way per phase, and
+ * runs the same load against {@code harness.target} in each. Every phase starts from a
+ * reset instance, so runs are comparable with each other and across changes:
+ *
+ * <pre>
+ * --harness.scenario=degradation --harness.target=http://localhost:8082
+ * --harness.degradation.instances=http://localhost:8083
+ * </pre>
+ */
+@Component
+class DegradationScenario implements Scenario {
+
+    private static final Map<String, Object> RESET = settings(
+            "distribution", "NONE", "errorRate", 0, "pauseEveryMillis", 0);
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CloseableHttpClient httpClient;
+
+    private final String[] instances;
+
+    private final String path;
+
+    private final Map<String, Map<String, Object>> phases = new LinkedHashMap<>();
+
+    @Autowired
+    DegradationScenario(CloseableHttpClient httpClient,
+                        @Value("${harness.degradation.instances:http://localhost:8083}") String[] instances,
+                        @Value("${harness.degradation.path:/api/feign/world}") String path,
+                        @Value("${harness.degradation.latency-millis:200}") long latencyMillis,
+                        @Value("${harness.degradation.error-rate:0.1}") double errorRate,
+                        @Value("${harness.degradation.pause-every-millis:2000}") long pauseEveryMillis,
+                        @Value("${harness.degradation.pause-millis:500}") long pauseMillis) {
+        this.httpClient = httpClient;
+        this.instances = instances;
+        this.path = path;
+        this.phases.put("baseline", RESET);
+        this.phases.put("latency", settings("distribution", "LOGNORMAL", "latencyMillis", latencyMillis));
+        this.phases.put("errors", settings("errorRate", errorRate));
+        this.phases.put("pauses", settings("pauseEveryMillis", pauseEveryMillis, "pauseMillis", pauseMillis));
+    }
+
+    @Override
+    public String getName() {
+        return "degradation";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        String uri = properties.getTarget() + this.path;
+        Map<String, Report> reports = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Map<String, Object>> phase : this.phases.entrySet()) {
+                this.configure(properties, RESET);
+                this.configure(properties, phase.getValue());
+                reports.put(phase.getKey(), loadGenerator.run("degradation-" + phase.getKey(),
+                        properties.getConcurrency(), TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()),
+                        () -> () -> this.get(properties, uri)));
+            }
+        }
+        finally {
+            this.configure(properties, RESET);
+        }
+        reports.forEach((phase, report) -> log.info(String.format(
+                "%-8s %s: errors %.2f%% p50 %.1f ms p99 %.1f ms throughput %.1f/s", phase, this.phases.get(phase),
+                report.getErrorRate() * 100, report.percentileMillis(50), report.percentileMillis(99),
+                report.getThroughput())));
+    }
+
+    // /chaos is sensitive, the bearer token has to be an admin's
+    private void configure(HarnessProperties properties, Map<String, Object> settings) throws Exception {
+        for (String instance : this.instances) {
+            HttpPost post = new HttpPost(instance + "/chaos");
+            if (properties.getBearerToken() != null) {
+                post.setHeader("Authorization", "Bearer " + properties.getBearerToken());
+            }
+            post.setEntity(new StringEntity(this.objectMapper.writeValueAsString(settings), ContentType.APPLICATION_JSON));
+            try (CloseableHttpResponse response = this.httpClient.execute(post)) {
+                EntityUtils.consume(response.getEntity());
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    throw new IllegalStateException("couldn't configure " + instance + ": " + response.getStatusLine());
+                }
+            }
+        }
+    }
+
+    private boolean get(HarnessProperties properties, String uri) throws Exception {
+        HttpGet get = new HttpGet(uri);
+        if (properties.getBearerToken() != null) {
+            get.setHeader("Authorization", "Bearer " + properties.getBearerToken());
+        }
+        try (CloseableHttpResponse response = this.httpClient.execute(get)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode() < 400;
+        }
+    }
+
+    private static Map<String, Object> settings(Object... keysAndValues) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            settings.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return Collections.unmodifiableMap(settings);
+    }
+}
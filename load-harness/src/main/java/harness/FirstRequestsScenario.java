@@ -0,0 +1,145 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts a fresh edge-service, waits for the registry to list it as UP, and times the
+ * first requests it gets from then on. It does this once as {@code cold}, with the
+ * warm-up switched off, and once as {@code warm}. The same {@code harness.startup.*}
+ * settings pick the jar and JVM arguments:
+ *
+ * <pre>
+ * --harness.scenario=first-requests
+ * --harness.first-requests.path=/api/feign/world
+ * --harness.first-requests.requests=200
+ * </pre>
+ */
+@Component
+class FirstRequestsScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final StartupScenario startupScenario;
+
+    private final File home;
+
+    private final String module;
+
+    private final String application;
+
+    private final int port;
+
+    private final Registry registry;
+
+    private final String path;
+
+    private final int requests;
+
+    private final long timeoutSeconds;
+
+    @Autowired
+    FirstRequestsScenario(CloseableHttpClient httpClient, StartupScenario startupScenario,
+                          @Value("${harness.startup.home:..}") File home,
+                          @Value("${harness.first-requests.module:edge-service}") String module,
+                          @Value("${harness.first-requests.application:greetings-client}") String application,
+                          @Value("${harness.first-requests.port:8092}") int port,
+                          @Value("${harness.first-requests.registry:http://localhost:8761/eureka}") String registry,
+                          @Value("${harness.first-requests.path:/api/feign/world}") String path,
+                          @Value("${harness.first-requests.requests:200}") int requests,
+                          @Value("${harness.first-requests.timeout-seconds:180}") long timeoutSeconds) {
+        this.httpClient = httpClient;
+        this.startupScenario = startupScenario;
+        this.home = home;
+        this.module = module;
+        this.application = application;
+        this.port = port;
+        this.registry = new Registry(httpClient, registry);
+        this.path = path;
+        this.requests = requests;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public String getName() {
+        return "first-requests";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        variants.put("cold", Arrays.asList("--edge.warmup.enabled=false", "--eureka.instance.initial-status=UP"));
+        variants.put("warm", Collections.emptyList());
+        for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+            List<String> command = this.startupScenario.command(new File(this.home, this.module + "/target"));
+            command.add("--server.port=" + this.port);
+            command.addAll(variant.getValue());
+            File output = File.createTempFile("first-requests-" + variant.getKey(), ".log");
+            long start = System.currentTimeMillis();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(output)).start();
+            try {
+                this.registry.awaitStatus(this.application, this.port, "UP",
+                        start + TimeUnit.SECONDS.toMillis(this.timeoutSeconds));
+                long up = System.currentTimeMillis() - start;
+                Report report = this.firstRequests("first-requests-" + variant.getKey(), properties.getConcurrency());
+                log.info(String.format("%s: UP after %d ms, p99 of the first %d requests %.1f ms, max %.1f ms (log in %s)",
+                        variant.getKey(), up, report.getRequests(), report.percentileMillis(99),
+                        report.percentileMillis(100), output));
+            }
+            finally {
+                process.destroy();
+                if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+    }
+
+    private Report firstRequests(String name, int concurrency) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        String uri = "http://localhost:" + this.port + this.path;
+        long[] latencies = new long[this.requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong failures = new AtomicLong();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(() -> {
+                int request;
+                while ((request = next.getAndIncrement()) < this.requests) {
+                    long requestStart = System.nanoTime();
+                    try (CloseableHttpResponse response = this.httpClient.execute(new HttpGet(uri))) {
+                        EntityUtils.consume(response.getEntity());
+                        if (response.getStatusLine().getStatusCode() >= 500) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[request] = System.nanoTime() - requestStart;
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(this.timeoutSeconds, TimeUnit.SECONDS);
+        Report report = new Report(name, concurrency, failures.get(), System.currentTimeMillis() - start, latencies);
+        log.info(report);
+        return report;
+    }
+}
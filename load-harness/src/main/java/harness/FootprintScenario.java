@@ -0,0 +1,164 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Starts {@code harness.footprint.modules} once as one JVM each and once in the launcher,
+ * and compares the time until all of them have started and their total resident set
+ * size once they have. Linux only, RSS comes from {@code /proc}. Build with
+ * {@code mvn -Pcds package} first:
+ *
+ * <pre>
+ * --harness.scenario=footprint --harness.startup.mode=cds --harness.startup.jvm-args=-Xmx256m
+ * </pre>
+ */
+@Component
+class FootprintScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final StartupScenario startupScenario;
+
+    private final File home;
+
+    private final String[] modules;
+
+    private final String[] jvmArgs;
+
+    private final long timeoutSeconds;
+
+    @Autowired
+    FootprintScenario(StartupScenario startupScenario,
+                      @Value("${harness.startup.home:..}") File home,
+                      @Value("${harness.footprint.modules:service-registry,auth-service,greetings-service,edge-service,html5-client}") String[] modules,
+                      @Value("${harness.startup.jvm-args:}") String jvmArgs,
+                      @Value("${harness.footprint.timeout-seconds:300}") long timeoutSeconds) {
+        this.startupScenario = startupScenario;
+        this.home = home;
+        this.modules = modules;
+        this.jvmArgs = StringUtils.tokenizeToStringArray(jvmArgs, " ");
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public String getName() {
+        return "footprint";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        List<Process> processes = new ArrayList<>();
+        try {
+            long start = System.currentTimeMillis();
+            List<File> logs = new ArrayList<>();
+            for (String module : this.modules) {
+                List<String> command = this.startupScenario.command(new File(this.home, module + "/target"));
+                File output = File.createTempFile("footprint-" + module, ".log");
+                processes.add(new ProcessBuilder(command).redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.appendTo(output)).start());
+                logs.add(output);
+            }
+            for (File output : logs) {
+                this.await(output, line -> line.contains("Started ") && line.contains(" seconds (JVM running for "), start);
+            }
+            this.report("one JVM per module", System.currentTimeMillis() - start, processes);
+        }
+        finally {
+            this.stop(processes);
+        }
+
+        processes.clear();
+        try {
+            long start = System.currentTimeMillis();
+            // the launcher itself always runs from its fat jar, the modules from their cds layout
+            List<String> command = new ArrayList<>();
+            command.add(new File(System.getProperty("java.home"), "bin/java").getAbsolutePath());
+            command.addAll(Arrays.asList(this.jvmArgs));
+            command.add("-jar");
+            command.add(this.launcherJar().getAbsolutePath());
+            command.add("--launcher.home=" + this.home.getAbsolutePath());
+            command.add("--launcher.modules=" + String.join(",", this.modules));
+            File output = File.createTempFile("footprint-launcher", ".log");
+            processes.add(new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(output)).start());
+            this.await(output, line -> line.contains("modules started in"), start);
+            this.report("launcher", System.currentTimeMillis() - start, processes);
+        }
+        finally {
+            this.stop(processes);
+        }
+    }
+
+    private File launcherJar() {
+        File[] jars = new File(this.home, "launcher/target").listFiles((dir, name) -> name.endsWith(".jar"));
+        Assert.state(jars != null && jars.length > 0, "launcher not built, run mvn -Pcds package first");
+        return jars[0];
+    }
+
+    private void report(String layout, long startupMillis, List<Process> processes) throws Exception {
+        long rssKb = 0;
+        for (Process process : processes) {
+            rssKb += rssKb(pid(process));
+        }
+        log.info(String.format("%s: %d modules started in %d ms, %d MB resident in %d JVMs",
+                layout, this.modules.length, startupMillis, rssKb / 1024, processes.size()));
+    }
+
+    private void await(File output, Predicate<String> started, long start) throws Exception {
+        long deadline = start + TimeUnit.SECONDS.toMillis(this.timeoutSeconds);
+        while (System.currentTimeMillis() < deadline) {
+            if (Files.readAllLines(output.toPath(), StandardCharsets.UTF_8).stream().anyMatch(started)) {
+                return;
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("not started within " + this.timeoutSeconds + "s, see " + output);
+    }
+
+    private void stop(List<Process> processes) throws InterruptedException {
+        for (Process process : processes) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static long rssKb(long pid) throws IOException {
+        for (String line : Files.readAllLines(new File("/proc/" + pid + "/status").toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        throw new IllegalStateException("no VmRSS for " + pid);
+    }
+
+    // Process.pid() on JDK 9+, the private field before that
+    private static long pid(Process process) throws Exception {
+        try {
+            return (Long) Process.class.getMethod("pid").invoke(process);
+        }
+        catch (NoSuchMethodException e) {
+            java.lang.reflect.Field pid = process.getClass().getDeclaredField("pid");
+            pid.setAccessible(true);
+            Assert.state(pid.getType() == int.class, "no pid on " + process.getClass());
+            return pid.getInt(process);
+        }
+    }
+}
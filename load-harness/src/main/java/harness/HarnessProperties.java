@@ -0,0 +1,97 @@
+package harness;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HarnessProperties {
+
+    // which scenario to run, unset just serves the stub provider
+    private String scenario;
+
+    // base URL of the service under test
+    private String target;
+
+    // sent as a bearer token by the scenarios that call secured APIs
+    private String bearerToken;
+
+    private int concurrency = 50;
+
+    private int maxConnections = 10_000;
+
+    // name to base URL, for scenarios that compare several deployments
+    private final Map<String, String> concurrencyTargets = new LinkedHashMap<>();
+
+    private int durationSeconds = 30;
+
+    private int warmupSeconds = 5;
+
+    private boolean exitWhenDone = true;
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public void setScenario(String scenario) {
+        this.scenario = scenario;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public String getBearerToken() {
+        return bearerToken;
+    }
+
+    public void setBearerToken(String bearerToken) {
+        this.bearerToken = bearerToken;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public Map<String, String> getConcurrencyTargets() {
+        return concurrencyTargets;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public void setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    public boolean isExitWhenDone() {
+        return exitWhenDone;
+    }
+
+    public void setExitWhenDone(boolean exitWhenDone) {
+        this.exitWhenDone = exitWhenDone;
+    }
+}
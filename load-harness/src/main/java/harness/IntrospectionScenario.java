@@ -0,0 +1,115 @@
+package harness;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares token checks against auth-service at {@code harness.target}: one {@code /user}
+ * call per token, then {@code /introspect} with {@code harness.introspection.batch-size}
+ * tokens per call. It logs both as tokens checked per second. The tokens come from
+ * password grants for {@code harness.introspection.users}, by a client that has to have
+ * auth-service's {@code auth.introspection.authority}, like the {@code gateway} client of
+ * its sample data:
+ *
+ * <pre>
+ * --harness.scenario=introspection --harness.target=http://localhost:9191/uaa
+ * </pre>
+ */
+@Component
+class IntrospectionScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CloseableHttpClient httpClient;
+
+    private final String client;
+
+    private final String[] users;
+
+    private final int batchSize;
+
+    @Autowired
+    IntrospectionScenario(CloseableHttpClient httpClient,
+                          @Value("${harness.introspection.client:gateway:secret}") String client,
+                          @Value("${harness.introspection.users:dsyer:cloud,pwebb:boot,mminella:batch,rwinch:security,jlong:spring}") String[] users,
+                          @Value("${harness.introspection.batch-size:100}") int batchSize) {
+        this.httpClient = httpClient;
+        this.client = client;
+        this.users = users;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public String getName() {
+        return "introspection";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (String user : this.users) {
+            tokens.add(this.token(properties.getTarget(), user));
+        }
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < this.batchSize; i++) {
+            batch.add(tokens.get(i % tokens.size()));
+        }
+        String batchBody = this.objectMapper.writeValueAsString(batch);
+        long durationMillis = TimeUnit.SECONDS.toMillis(properties.getDurationSeconds());
+        AtomicInteger next = new AtomicInteger();
+
+        Report user = loadGenerator.run("introspection-user", properties.getConcurrency(), durationMillis, () -> () -> {
+            HttpGet get = new HttpGet(properties.getTarget() + "/user");
+            get.setHeader("Authorization", "Bearer " + tokens.get(Math.abs(next.getAndIncrement() % tokens.size())));
+            try (CloseableHttpResponse response = this.httpClient.execute(get)) {
+                EntityUtils.consume(response.getEntity());
+                return response.getStatusLine().getStatusCode() == 200;
+            }
+        });
+        Report introspect = loadGenerator.run("introspection-batch", properties.getConcurrency(), durationMillis, () -> () -> {
+            HttpPost post = new HttpPost(properties.getTarget() + "/introspect");
+            post.setHeader("Authorization", "Bearer " + tokens.get(0));
+            post.setEntity(new StringEntity(batchBody, ContentType.APPLICATION_JSON));
+            try (CloseableHttpResponse response = this.httpClient.execute(post)) {
+                EntityUtils.consume(response.getEntity());
+                return response.getStatusLine().getStatusCode() == 200;
+            }
+        });
+        log.info(String.format("tokens checked: /user %.0f/s, /introspect in batches of %d %.0f/s",
+                user.getThroughput(), this.batchSize, introspect.getThroughput() * this.batchSize));
+    }
+
+    private String token(String target, String user) throws Exception {
+        String[] credentials = user.split(":", 2);
+        HttpPost post = new HttpPost(target + "/oauth/token");
+        post.setHeader("Authorization", "Basic " + Base64.getEncoder()
+                .encodeToString(this.client.getBytes(StandardCharsets.UTF_8)));
+        List<NameValuePair> form = Arrays.asList(new BasicNameValuePair("grant_type", "password"),
+                new BasicNameValuePair("username", credentials[0]), new BasicNameValuePair("password", credentials[1]));
+        post.setEntity(new UrlEncodedFormEntity(form, StandardCharsets.UTF_8));
+        try (CloseableHttpResponse response = this.httpClient.execute(post)) {
+            return this.objectMapper.readTree(EntityUtils.toString(response.getEntity())).path("access_token").asText();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Closed-loop load: each worker issues its next request as soon as the previous one
+ * completes. A request counts as failed if it returns {@code false} or throws.
+ */
+public class LoadGenerator {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    public Report run(String name, int concurrency, long durationMillis,
+                      Supplier<Callable<Boolean>> workers) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        AtomicLong failures = new AtomicLong();
+        List<Future<long[]>> results = new ArrayList<>(concurrency);
+        long start = System.currentTimeMillis();
+        long end = start + durationMillis;
+        for (int i = 0; i < concurrency; i++) {
+            Callable<Boolean> request = workers.get();
+            results.add(executor.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.currentTimeMillis() < end) {
+                    long requestStart = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = Boolean.TRUE.equals(request.call());
+                    }
+                    catch (Exception e) {
+                        ok = false;
+                    }
+                    if (!ok) {
+                        failures.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - requestStart;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        executor.shutdown();
+        executor.awaitTermination(durationMillis + TimeUnit.MINUTES.toMillis(1), TimeUnit.MILLISECONDS);
+        long elapsed = System.currentTimeMillis() - start;
+
+        long[] all = new long[0];
+        for (Future<long[]> result : results) {
+            try {
+                long[] latencies = result.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            catch (ExecutionException e) {
+                log.warn("worker failed", e.getCause());
+            }
+        }
+        Report report = new Report(name, concurrency, failures.get(), elapsed, all);
+        log.info(report);
+        return report;
+    }
+}
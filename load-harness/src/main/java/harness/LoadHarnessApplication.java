@@ -0,0 +1,65 @@
+package harness;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+// java -jar load-harness.jar --harness.scenario=login --harness.target=http://localhost:9191/uaa
+@SpringBootApplication
+public class LoadHarnessApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(LoadHarnessApplication.class, args);
+    }
+
+    @Bean
+    @ConfigurationProperties("harness")
+    HarnessProperties harnessProperties() {
+        return new HarnessProperties();
+    }
+
+    @Bean
+    LoadGenerator loadGenerator() {
+        return new LoadGenerator();
+    }
+
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient httpClient(HarnessProperties properties) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(properties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxConnections());
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setRedirectStrategy(new LaxRedirectStrategy())
+                .build();
+    }
+
+    @Bean
+    CommandLineRunner scenarioRunner(HarnessProperties properties, List<Scenario> scenarios,
+                                     LoadGenerator loadGenerator, ConfigurableApplicationContext context) {
+        return args -> {
+            if (properties.getScenario() == null) {
+                return;
+            }
+            Scenario scenario = scenarios.stream()
+                    .filter(s -> s.getName().equals(properties.getScenario()))
+                    .findFirst()
+                    .orElse(null);
+            Assert.notNull(scenario, "no scenario named " + properties.getScenario());
+            scenario.run(properties, loadGenerator);
+            if (properties.isExitWhenDone()) {
+                System.exit(SpringApplication.exit(context));
+            }
+        };
+    }
+}
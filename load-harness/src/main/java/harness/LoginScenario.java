@@ -0,0 +1,52 @@
+package harness;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// full social login per request: /login/{provider}, the stub provider's authorize redirect,
+// the code exchange and the user info lookup
+@Component
+class LoginScenario implements Scenario {
+
+    private final CloseableHttpClient httpClient;
+
+    private final String provider;
+
+    @Autowired
+    LoginScenario(CloseableHttpClient httpClient, @Value("${harness.login.provider:github}") String provider) {
+        this.httpClient = httpClient;
+        this.provider = provider;
+    }
+
+    @Override
+    public String getName() {
+        return "login";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        String loginUri = properties.getTarget() + "/login/" + this.provider;
+        loadGenerator.run("login warm-up", properties.getConcurrency(),
+                TimeUnit.SECONDS.toMillis(properties.getWarmupSeconds()), () -> () -> this.login(loginUri));
+        loadGenerator.run("login", properties.getConcurrency(),
+                TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()), () -> () -> this.login(loginUri));
+    }
+
+    private boolean login(String loginUri) throws Exception {
+        HttpClientContext context = HttpClientContext.create();
+        context.setCookieStore(new BasicCookieStore());
+        try (CloseableHttpResponse response = this.httpClient.execute(new HttpGet(loginUri), context)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode() == 200;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times a page load against the edge-service at {@code harness.target}: first the
+ * calls the page used to make one after another, then the single
+ * {@code /api/composite} call it makes now. A page load counts as failed if any call
+ * fails. Set {@code harness.bearer-token} on the secure profile:
+ *
+ * <pre>
+ * --harness.scenario=page --harness.target=http://localhost:8082 --harness.concurrency=20
+ * </pre>
+ */
+@Component
+class PageScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final String[] sequential;
+
+    private final String[] composite;
+
+    @Autowired
+    PageScenario(CloseableHttpClient httpClient,
+                 @Value("${harness.page.sequential:/greetings-service/greet/world,/api/feign/world}") String[] sequential,
+                 @Value("${harness.page.composite:/api/composite/world}") String[] composite) {
+        this.httpClient = httpClient;
+        this.sequential = sequential;
+        this.composite = composite;
+    }
+
+    @Override
+    public String getName() {
+        return "page";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        Report before = this.pageLoads("page-sequential", this.sequential, properties, loadGenerator);
+        Report after = this.pageLoads("page-composite", this.composite, properties, loadGenerator);
+        log.info(String.format("page load p50 %.1f -> %.1f ms, p99 %.1f -> %.1f ms",
+                before.percentileMillis(50), after.percentileMillis(50),
+                before.percentileMillis(99), after.percentileMillis(99)));
+    }
+
+    private Report pageLoads(String name, String[] paths, HarnessProperties properties,
+                             LoadGenerator loadGenerator) throws InterruptedException {
+        return loadGenerator.run(name, properties.getConcurrency(),
+                TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()),
+                () -> () -> {
+                    boolean ok = true;
+                    for (String path : paths) {
+                        ok &= this.get(properties, properties.getTarget() + path);
+                    }
+                    return ok;
+                });
+    }
+
+    private boolean get(HarnessProperties properties, String uri) throws Exception {
+        HttpGet get = new HttpGet(uri);
+        if (properties.getBearerToken() != null) {
+            get.setHeader("Authorization", "Bearer " + properties.getBearerToken());
+        }
+        try (CloseableHttpResponse response = this.httpClient.execute(get)) {
+            String body = EntityUtils.toString(response.getEntity());
+            return response.getStatusLine().getStatusCode() < 400 && !body.contains("\"partial\":true");
+        }
+    }
+}
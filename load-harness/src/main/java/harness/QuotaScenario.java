@@ -0,0 +1,93 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spreads load over several edge-service replicas running with the {@code throttled} and
+ * {@code cluster-quota} profiles. It compares the requests they let through (anything
+ * but 429) with the global quota, overall and in the worst one-second window:
+ *
+ * <pre>
+ * --harness.scenario=quota
+ * --harness.quota.targets=http://localhost:8082,http://localhost:8084,http://localhost:8086
+ * --harness.quota.permits-per-second=50
+ * </pre>
+ */
+@Component
+class QuotaScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final String[] targets;
+
+    private final String path;
+
+    private final double permitsPerSecond;
+
+    @Autowired
+    QuotaScenario(CloseableHttpClient httpClient,
+                  @Value("${harness.quota.targets:http://localhost:8082}") String[] targets,
+                  @Value("${harness.quota.path:/greetings-service/greet/world}") String path,
+                  @Value("${harness.quota.permits-per-second:50}") double permitsPerSecond) {
+        this.httpClient = httpClient;
+        this.targets = targets;
+        this.path = path;
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    @Override
+    public String getName() {
+        return "quota";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        LongAdder admitted = new LongAdder();
+        Map<Long, LongAdder> admittedBySecond = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+        Report report = loadGenerator.run("quota", properties.getConcurrency(),
+                TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()),
+                () -> {
+                    String uri = this.targets[next.getAndIncrement() % this.targets.length] + this.path;
+                    return () -> {
+                        int status = this.get(uri);
+                        if (status != 429) {
+                            admitted.increment();
+                            admittedBySecond.computeIfAbsent(System.currentTimeMillis() / 1000, s -> new LongAdder())
+                                    .increment();
+                        }
+                        return status < 500;
+                    };
+                });
+        double seconds = properties.getDurationSeconds();
+        double rate = admitted.sum() / seconds;
+        long worstSecond = admittedBySecond.values().stream().mapToLong(LongAdder::sum).max().orElse(0);
+        log.info(String.format("%d replicas, %d requests: admitted %.1f/s against a quota of %.1f/s " +
+                        "(overshoot %.1f%%), worst second %d",
+                this.targets.length, report.getRequests(), rate, this.permitsPerSecond,
+                (rate / this.permitsPerSecond - 1) * 100, worstSecond));
+    }
+
+    private int get(String uri) throws Exception {
+        try (CloseableHttpResponse response = this.httpClient.execute(new HttpGet(uri))) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        }
+    }
+}
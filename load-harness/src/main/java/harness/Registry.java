@@ -0,0 +1,77 @@
+package harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+
+import java.util.Collections;
+
+// polls Eureka's REST API for the status of the instances the scenarios start
+class Registry {
+
+    static String instance(String application, String id, int port) {
+        return "{\"instance\":{\"instanceId\":\"" + id + "\",\"hostName\":\"127.0.0.1\",\"app\":\"" + application + "\"," +
+                "\"ipAddr\":\"127.0.0.1\",\"status\":\"UP\",\"port\":{\"$\":" + port + ",\"@enabled\":\"true\"}," +
+                "\"vipAddress\":\"" + application.toLowerCase() + "\",\"leaseInfo\":{\"durationInSecs\":90}," +
+                "\"dataCenterInfo\":{\"@class\":\"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo\",\"name\":\"MyOwn\"}}}";
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CloseableHttpClient httpClient;
+
+    private final String url;
+
+    Registry(CloseableHttpClient httpClient, String url) {
+        this.httpClient = httpClient;
+        this.url = url;
+    }
+
+    void awaitStatus(String application, int port, String status, long deadline) throws Exception {
+        while (System.currentTimeMillis() < deadline) {
+            if (status.equals(this.status(application, port))) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException(application + " on port " + port + " isn't " + status + " in the registry");
+    }
+
+    // null if the registry doesn't list it
+    String status(String application, int port) throws Exception {
+        for (JsonNode instance : this.instances(application)) {
+            if (instance.path("port").path("$").asInt() == port) {
+                return instance.path("status").asText();
+            }
+        }
+        return null;
+    }
+
+    int count(String application) throws Exception {
+        int count = 0;
+        for (JsonNode ignored : this.instances(application)) {
+            count++;
+        }
+        return count;
+    }
+
+    private Iterable<JsonNode> instances(String application) throws Exception {
+        HttpGet get = new HttpGet(this.url + "/apps/" + application);
+        get.setHeader("Accept", "application/json");
+        try (CloseableHttpResponse response = this.httpClient.execute(get)) {
+            if (response.getStatusLine().getStatusCode() != 200) {
+                EntityUtils.consume(response.getEntity());
+                return Collections.emptyList();
+            }
+            JsonNode instances = this.objectMapper.readTree(EntityUtils.toString(response.getEntity()))
+                    .path("application").path("instance");
+            if (instances.isMissingNode()) {
+                return Collections.emptyList();
+            }
+            return instances.isArray() ? instances : Collections.singletonList(instances);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures a registry cluster, the nodes at {@code harness.replication.nodes}: how long
+ * registrations made on the first node take to show up on the others, idle and under
+ * heartbeat load, and how many heartbeats per second the cluster takes when clients
+ * spread them over every node. Run it against one, two and three nodes to see both
+ * change as the cluster grows:
+ *
+ * <pre>
+ * --harness.scenario=replication --harness.replication.nodes=http://127.0.0.1:8761/eureka,http://127.0.0.2:8761/eureka
+ * </pre>
+ */
+@Component
+class ReplicationScenario implements Scenario {
+
+    private static final String APPLICATION = "HARNESS-REPLICATION";
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final String[] nodes;
+
+    private final int instances;
+
+    private final long timeoutSeconds;
+
+    @Autowired
+    ReplicationScenario(CloseableHttpClient httpClient,
+                        @Value("${harness.replication.nodes:http://127.0.0.1:8761/eureka,http://127.0.0.2:8761/eureka,http://127.0.0.3:8761/eureka}") String[] nodes,
+                        @Value("${harness.replication.instances:500}") int instances,
+                        @Value("${harness.replication.timeout-seconds:60}") long timeoutSeconds) {
+        this.httpClient = httpClient;
+        this.nodes = nodes;
+        this.instances = instances;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public String getName() {
+        return "replication";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        List<String> ids = new CopyOnWriteArrayList<>();
+        ExecutorService load = Executors.newSingleThreadExecutor();
+        try {
+            long idleLag = this.registerAndAwait(0, this.instances, ids);
+            log.info(String.format("%d nodes: %d registrations replicated to every node in %d ms",
+                    this.nodes.length, this.instances, idleLag));
+
+            AtomicLong next = new AtomicLong();
+            Future<Report> heartbeats = load.submit(() -> loadGenerator.run("heartbeats", properties.getConcurrency(),
+                    TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()),
+                    () -> () -> {
+                        long n = next.getAndIncrement();
+                        String id = ids.get((int) (n % ids.size()));
+                        // spread over the nodes like clients with the whole list would
+                        String node = this.nodes[(int) (n % this.nodes.length)];
+                        return this.execute(new HttpPut(node + "/apps/" + APPLICATION + "/" + id + "?status=UP")) == 200;
+                    }));
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(properties.getWarmupSeconds()));
+            long loadedLag = this.registerAndAwait(this.instances, 50, ids);
+            Report report = heartbeats.get();
+            log.info(String.format("%d nodes: %.0f heartbeats/s, %d of %d failed, p99 %.1f ms, " +
+                            "50 registrations replicated in %d ms under that load", this.nodes.length,
+                    report.getThroughput(), report.getFailures(), report.getRequests(),
+                    report.percentileMillis(99), loadedLag));
+        }
+        finally {
+            load.shutdownNow();
+            for (String id : ids) {
+                this.execute(new HttpDelete(this.nodes[0] + "/apps/" + APPLICATION + "/" + id));
+            }
+        }
+    }
+
+    // registers on the first node, then waits until every node lists them all
+    private long registerAndAwait(int from, int count, List<String> ids) throws Exception {
+        long start = System.currentTimeMillis();
+        for (int i = from; i < from + count; i++) {
+            String id = "harness-" + i;
+            HttpPost post = new HttpPost(this.nodes[0] + "/apps/" + APPLICATION);
+            post.setEntity(new StringEntity(Registry.instance(APPLICATION, id, 10_000 + i), ContentType.APPLICATION_JSON));
+            int status = this.execute(post);
+            // pushed back, like a real client would, try again in a bit
+            while (status == 503 && System.currentTimeMillis() < start + TimeUnit.SECONDS.toMillis(this.timeoutSeconds)) {
+                Thread.sleep(100);
+                status = this.execute(post);
+            }
+            if (status != 204) {
+                throw new IllegalStateException("couldn't register " + id + ": " + status);
+            }
+            ids.add(id);
+        }
+        long deadline = start + TimeUnit.SECONDS.toMillis(this.timeoutSeconds);
+        for (String node : this.nodes) {
+            Registry registry = new Registry(this.httpClient, node);
+            while (registry.count(APPLICATION) < from + count) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException(node + " has " + registry.count(APPLICATION) +
+                            " of " + (from + count) + " instances after " + this.timeoutSeconds + "s");
+                }
+                Thread.sleep(50);
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private int execute(HttpUriRequest request) throws Exception {
+        try (CloseableHttpResponse response = this.httpClient.execute(request)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        }
+    }
+}
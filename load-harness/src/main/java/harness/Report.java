@@ -0,0 +1,65 @@
+package harness;
+
+import java.util.Arrays;
+
+public class Report {
+
+    private final String name;
+
+    private final int concurrency;
+
+    private final long requests;
+
+    private final long failures;
+
+    private final long elapsedMillis;
+
+    private final long[] sortedLatenciesNanos;
+
+    Report(String name, int concurrency, long failures, long elapsedMillis, long[] latenciesNanos) {
+        this.name = name;
+        this.concurrency = concurrency;
+        this.requests = latenciesNanos.length;
+        this.failures = failures;
+        this.elapsedMillis = elapsedMillis;
+        this.sortedLatenciesNanos = latenciesNanos;
+        Arrays.sort(this.sortedLatenciesNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public double getErrorRate() {
+        return this.requests == 0 ? 0 : (double) this.failures / this.requests;
+    }
+
+    public double getThroughput() {
+        return this.elapsedMillis == 0 ? 0 : this.requests * 1000d / this.elapsedMillis;
+    }
+
+    public double percentileMillis(double percentile) {
+        if (this.sortedLatenciesNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100d * this.sortedLatenciesNanos.length) - 1;
+        return this.sortedLatenciesNanos[Math.max(0, index)] / 1_000_000d;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: concurrency=%d requests=%d failures=%d (%.2f%%) throughput=%.1f/s " +
+                        "p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                this.name, this.concurrency, this.requests, this.failures, this.getErrorRate() * 100,
+                this.getThroughput(), this.percentileMillis(50), this.percentileMillis(90),
+                this.percentileMillis(99), this.percentileMillis(100));
+    }
+}
@@ -0,0 +1,150 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Starts greetings-service on each of {@code harness.rolling.ports}, puts load on the
+ * edge-service at {@code harness.target}, and restarts the instances one at a time
+ * with SIGTERM, like a rolling deploy. It reports failed requests and the p99 of the
+ * worst one-second window next to the overall p99. The load has to outlast the
+ * restarts, so give it time:
+ *
+ * <pre>
+ * --harness.scenario=rolling --harness.target=http://localhost:8082 --harness.duration-seconds=240
+ * </pre>
+ */
+@Component
+class RollingScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final StartupScenario startupScenario;
+
+    private final File home;
+
+    private final String module;
+
+    private final String application;
+
+    private final int[] ports;
+
+    private final Registry registry;
+
+    private final String path;
+
+    private final long timeoutSeconds;
+
+    @Autowired
+    RollingScenario(CloseableHttpClient httpClient, StartupScenario startupScenario,
+                    @Value("${harness.startup.home:..}") File home,
+                    @Value("${harness.rolling.module:greetings-service}") String module,
+                    @Value("${harness.rolling.application:greetings-service}") String application,
+                    @Value("${harness.rolling.ports:8091,8093,8095}") int[] ports,
+                    @Value("${harness.rolling.registry:http://localhost:8761/eureka}") String registry,
+                    @Value("${harness.rolling.path:/api/feign/world}") String path,
+                    @Value("${harness.rolling.timeout-seconds:180}") long timeoutSeconds) {
+        this.httpClient = httpClient;
+        this.startupScenario = startupScenario;
+        this.home = home;
+        this.module = module;
+        this.application = application;
+        this.ports = ports;
+        this.registry = new Registry(httpClient, registry);
+        this.path = path;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public String getName() {
+        return "rolling";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        Map<Integer, Process> instances = new ConcurrentHashMap<>();
+        ExecutorService load = Executors.newSingleThreadExecutor();
+        try {
+            for (int port : this.ports) {
+                instances.put(port, this.start(port));
+            }
+            Map<Long, Queue<Long>> latenciesBySecond = new ConcurrentHashMap<>();
+            String uri = properties.getTarget() + this.path;
+            Future<Report> report = load.submit(() -> loadGenerator.run("rolling", properties.getConcurrency(),
+                    TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()),
+                    () -> () -> {
+                        long start = System.nanoTime();
+                        try (CloseableHttpResponse response = this.httpClient.execute(new HttpGet(uri))) {
+                            EntityUtils.consume(response.getEntity());
+                            return response.getStatusLine().getStatusCode() < 400;
+                        }
+                        finally {
+                            latenciesBySecond.computeIfAbsent(System.currentTimeMillis() / 1000,
+                                    s -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - start);
+                        }
+                    }));
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(properties.getWarmupSeconds()));
+            for (int port : this.ports) {
+                long start = System.currentTimeMillis();
+                this.stop(instances.remove(port));
+                log.info(String.format("%s on %d stopped in %d ms", this.module, port, System.currentTimeMillis() - start));
+                instances.put(port, this.start(port));
+            }
+
+            Report rolling = report.get();
+            double worstSecond = latenciesBySecond.values().stream()
+                    .mapToDouble(latencies -> p99Millis(new ArrayList<>(latencies))).max().orElse(0);
+            log.info(String.format("rolling restart of %d instances: %d of %d requests failed, p99 %.1f ms, " +
+                            "worst one-second p99 %.1f ms", this.ports.length, rolling.getFailures(),
+                    rolling.getRequests(), rolling.percentileMillis(99), worstSecond));
+        }
+        finally {
+            load.shutdownNow();
+            for (Process process : instances.values()) {
+                this.stop(process);
+            }
+        }
+    }
+
+    private Process start(int port) throws Exception {
+        List<String> command = this.startupScenario.command(new File(this.home, this.module + "/target"));
+        command.add("--server.port=" + port);
+        File output = File.createTempFile("rolling-" + port, ".log");
+        long start = System.currentTimeMillis();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(output)).start();
+        this.registry.awaitStatus(this.application, port, "UP",
+                start + TimeUnit.SECONDS.toMillis(this.timeoutSeconds));
+        log.info(String.format("%s on %d UP in %d ms (log in %s)", this.module, port,
+                System.currentTimeMillis() - start, output));
+        return process;
+    }
+
+    // SIGTERM, the instance drains itself before it exits
+    private void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(60, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static double p99Millis(List<Long> latencies) {
+        Collections.sort(latencies);
+        int index = (int) Math.ceil(0.99 * latencies.size()) - 1;
+        return latencies.isEmpty() ? 0 : latencies.get(Math.max(0, index)) / 1_000_000d;
+    }
+}
@@ -0,0 +1,113 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registers {@code harness.routes.services} extra applications, so that Zuul has as many
+ * more routes, then calls {@code harness.routes.path} through each target. Compare an
+ * edge-service started with {@code edge.routing.compiled=false} against the default:
+ *
+ * <pre>
+ * --harness.scenario=routes --harness.bearer-token=...
+ * --harness.concurrency-targets.linear=http://localhost:8082
+ * --harness.concurrency-targets.compiled=http://localhost:8084
+ * </pre>
+ */
+@Component
+class RoutesScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final String registry;
+
+    private final int services;
+
+    private final String path;
+
+    private final long refreshSeconds;
+
+    @Autowired
+    RoutesScenario(CloseableHttpClient httpClient,
+                   @Value("${harness.routes.registry:http://localhost:8761/eureka}") String registry,
+                   @Value("${harness.routes.services:5000}") int services,
+                   @Value("${harness.routes.path:/greetings-service/greet/world}") String path,
+                   @Value("${harness.routes.refresh-seconds:15}") long refreshSeconds) {
+        this.httpClient = httpClient;
+        this.registry = registry;
+        this.services = services;
+        this.path = path;
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    @Override
+    public String getName() {
+        return "routes";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        Map<String, String> targets = properties.getConcurrencyTargets().isEmpty() ?
+                Collections.singletonMap("target", properties.getTarget()) : properties.getConcurrencyTargets();
+        try {
+            for (int i = 0; i < this.services; i++) {
+                HttpPost post = new HttpPost(this.registry + "/apps/" + application(i));
+                post.setEntity(new StringEntity(Registry.instance(application(i), application(i), 10_000 + i % 50_000),
+                        ContentType.APPLICATION_JSON));
+                this.execute(post);
+            }
+            // the edge rebuilds its routes after its next registry fetch
+            Thread.sleep(TimeUnit.SECONDS.toMillis(this.refreshSeconds));
+
+            for (Map.Entry<String, String> target : targets.entrySet()) {
+                String uri = target.getValue() + this.path;
+                Report report = loadGenerator.run(target.getKey() + " " + this.path, properties.getConcurrency(),
+                        TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()), () -> () -> {
+                            HttpGet get = new HttpGet(uri);
+                            if (properties.getBearerToken() != null) {
+                                get.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + properties.getBearerToken());
+                            }
+                            return this.execute(get) < 400;
+                        });
+                log.info(String.format("%s with %d extra routes: p50 %.1f ms, p99 %.1f ms at %.0f requests/s, " +
+                                "%d of %d failed", target.getKey(), this.services, report.percentileMillis(50),
+                        report.percentileMillis(99), report.getThroughput(), report.getFailures(), report.getRequests()));
+            }
+        }
+        finally {
+            for (int i = 0; i < this.services; i++) {
+                this.execute(new HttpDelete(this.registry + "/apps/" + application(i) + "/" + application(i)));
+            }
+        }
+    }
+
+    private int execute(HttpUriRequest request) throws Exception {
+        try (CloseableHttpResponse response = this.httpClient.execute(request)) {
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        }
+    }
+
+    private static String application(int i) {
+        return "HARNESS-ROUTE-" + i;
+    }
+}
@@ -0,0 +1,8 @@
+package harness;
+
+public interface Scenario {
+
+    String getName();
+
+    void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception;
+}
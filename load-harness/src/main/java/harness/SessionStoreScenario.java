@@ -0,0 +1,94 @@
+package harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts SSO logins on edge-service, each from a new client, so that every request saves
+ * a session holding the OAuth2 client context, and reports what the off-heap store's
+ * gauges say it cost: serialized size and serialization time. Compare it with Redis, or the
+ * container's own sessions, with one target each:
+ *
+ * <pre>
+ * --harness.scenario=session-store
+ * --harness.concurrency-targets.offheap=http://localhost:8082
+ * --harness.concurrency-targets.remote=http://localhost:8084
+ * </pre>
+ */
+@Component
+class SessionStoreScenario implements Scenario {
+
+    // the redirect to the authorization server is where the flow stops, with the session saved
+    private static final RequestConfig NEW_CLIENT = RequestConfig.custom()
+            .setCookieSpec(CookieSpecs.IGNORE_COOKIES).setRedirectsEnabled(false).build();
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CloseableHttpClient httpClient;
+
+    private final String path;
+
+    private final String metricsPath;
+
+    @Autowired
+    SessionStoreScenario(CloseableHttpClient httpClient,
+                         @Value("${harness.session-store.path:/login}") String path,
+                         @Value("${harness.session-store.metrics-path:/metrics}") String metricsPath) {
+        this.httpClient = httpClient;
+        this.path = path;
+        this.metricsPath = metricsPath;
+    }
+
+    @Override
+    public String getName() {
+        return "session-store";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        Map<String, String> targets = properties.getConcurrencyTargets().isEmpty() ?
+                Collections.singletonMap("target", properties.getTarget()) : properties.getConcurrencyTargets();
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            String uri = target.getValue() + this.path;
+            Report report = loadGenerator.run(target.getKey() + " sessions", properties.getConcurrency(),
+                    TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()), () -> () -> {
+                        HttpGet get = new HttpGet(uri);
+                        get.setConfig(NEW_CLIENT);
+                        try (CloseableHttpResponse response = this.httpClient.execute(get)) {
+                            EntityUtils.consume(response.getEntity());
+                            return response.getStatusLine().getStatusCode() < 400;
+                        }
+                    });
+            JsonNode metrics = this.metrics(target.getValue());
+            log.info(String.format("%s: p99 %.1f ms at %.0f requests/s, last session %.0f bytes, " +
+                            "serialized in %.1f us, deserialized in %.1f us", target.getKey(),
+                    report.percentileMillis(99), report.getThroughput(),
+                    metrics.path("gauge.session.bytes").asDouble(),
+                    metrics.path("gauge.session.serialize.micros").asDouble(),
+                    metrics.path("gauge.session.deserialize.micros").asDouble()));
+        }
+    }
+
+    private JsonNode metrics(String target) throws Exception {
+        try (CloseableHttpResponse response = this.httpClient.execute(new HttpGet(target + this.metricsPath))) {
+            return this.objectMapper.readTree(EntityUtils.toString(response.getEntity()));
+        }
+    }
+}
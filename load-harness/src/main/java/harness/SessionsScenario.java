@@ -0,0 +1,98 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls {@code harness.sessions.paths} the way a machine client does, with a bearer
+ * token and without keeping cookies, and counts the sessions and CSRF tokens the target
+ * hands out per 1,000 requests. Compare a deployment started with
+ * {@code edge.stateless.enabled=false} against the default:
+ *
+ * <pre>
+ * --harness.scenario=sessions --harness.bearer-token=...
+ * --harness.concurrency-targets.stateful=http://localhost:8082
+ * --harness.concurrency-targets.stateless=http://localhost:8084
+ * </pre>
+ */
+@Component
+class SessionsScenario implements Scenario {
+
+    // a client that never sends cookies back, so every session it is given is a new one
+    private static final RequestConfig NO_COOKIES = RequestConfig.custom().setCookieSpec(CookieSpecs.IGNORE_COOKIES).build();
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final CloseableHttpClient httpClient;
+
+    private final String[] paths;
+
+    @Autowired
+    SessionsScenario(CloseableHttpClient httpClient,
+                     @Value("${harness.sessions.paths:/api/feign/world,/api/composite/world,/greetings-service/greet/world}") String[] paths) {
+        this.httpClient = httpClient;
+        this.paths = paths;
+    }
+
+    @Override
+    public String getName() {
+        return "sessions";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        Map<String, String> targets = properties.getConcurrencyTargets().isEmpty() ?
+                Collections.singletonMap("target", properties.getTarget()) : properties.getConcurrencyTargets();
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            for (String path : this.paths) {
+                String uri = target.getValue() + path;
+                LongAdder sessions = new LongAdder();
+                LongAdder csrfTokens = new LongAdder();
+                Report report = loadGenerator.run(target.getKey() + " " + path, properties.getConcurrency(),
+                        TimeUnit.SECONDS.toMillis(properties.getDurationSeconds()),
+                        () -> () -> this.get(uri, properties.getBearerToken(), sessions, csrfTokens));
+                double perThousand = 1000d / Math.max(1, report.getRequests());
+                log.info(String.format("%s %s: %.1f sessions and %.1f CSRF tokens per 1k requests " +
+                                "(%d requests, %d failed)", target.getKey(), path, sessions.sum() * perThousand,
+                        csrfTokens.sum() * perThousand, report.getRequests(), report.getFailures()));
+            }
+        }
+    }
+
+    private boolean get(String uri, String bearerToken, LongAdder sessions, LongAdder csrfTokens) throws Exception {
+        HttpGet get = new HttpGet(uri);
+        get.setConfig(NO_COOKIES);
+        if (bearerToken != null) {
+            get.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken);
+        }
+        try (CloseableHttpResponse response = this.httpClient.execute(get)) {
+            EntityUtils.consume(response.getEntity());
+            for (Header cookie : response.getHeaders("Set-Cookie")) {
+                String value = cookie.getValue();
+                if (value.startsWith("JSESSIONID=") || value.startsWith("SESSION=")) {
+                    sessions.increment();
+                }
+                else if (value.startsWith("XSRF-TOKEN=")) {
+                    csrfTokens.increment();
+                }
+            }
+            return response.getStatusLine().getStatusCode() < 400;
+        }
+    }
+}
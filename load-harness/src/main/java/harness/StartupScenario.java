@@ -0,0 +1,126 @@
+package harness;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+/**
+ * Starts each module {@code harness.startup.runs} times and reports the wall-clock time
+ * until Spring Boot logs that it started. {@code harness.startup.mode=cds} runs from the
+ * archive built by the {@code cds} Maven profile, {@code harness.startup.jvm-args} can
+ * switch on {@code -Dstartup.lazy-init.enabled=true} and the like.
+ */
+@Component
+class StartupScenario implements Scenario {
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final File home;
+
+    private final String[] modules;
+
+    private final int runs;
+
+    private final String mode;
+
+    private final String[] jvmArgs;
+
+    private final long timeoutSeconds;
+
+    @Autowired
+    StartupScenario(@Value("${harness.startup.home:..}") File home,
+                    @Value("${harness.startup.modules:service-registry,auth-service,greetings-service,edge-service}") String[] modules,
+                    @Value("${harness.startup.runs:5}") int runs,
+                    @Value("${harness.startup.mode:jar}") String mode,
+                    @Value("${harness.startup.jvm-args:}") String jvmArgs,
+                    @Value("${harness.startup.timeout-seconds:180}") long timeoutSeconds) {
+        this.home = home;
+        this.modules = modules;
+        this.runs = runs;
+        this.mode = mode;
+        this.jvmArgs = StringUtils.tokenizeToStringArray(jvmArgs, " ");
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    @Override
+    public String getName() {
+        return "startup";
+    }
+
+    @Override
+    public void run(HarnessProperties properties, LoadGenerator loadGenerator) throws Exception {
+        for (String module : this.modules) {
+            long[] millis = new long[this.runs];
+            for (int i = 0; i < this.runs; i++) {
+                millis[i] = this.startOnce(this.command(new File(this.home, module + "/target")));
+            }
+            Arrays.sort(millis);
+            log.info(String.format("%s (%s %s): min=%dms median=%dms max=%dms over %d runs", module, this.mode,
+                    String.join(" ", this.jvmArgs), millis[0], millis[millis.length / 2],
+                    millis[millis.length - 1], millis.length));
+        }
+    }
+
+    long startOnce(List<String> command) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            long deadline = start + TimeUnit.SECONDS.toMillis(this.timeoutSeconds);
+            String line;
+            while ((line = output.readLine()) != null && System.currentTimeMillis() < deadline) {
+                if (line.contains("Started ") && line.contains(" seconds (JVM running for ")) {
+                    return System.currentTimeMillis() - start;
+                }
+            }
+            throw new IllegalStateException("no startup within " + this.timeoutSeconds + "s: " + command);
+        }
+        finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    List<String> command(File target) throws IOException {
+        File jar = this.find(target, name -> name.endsWith(".jar") && !name.endsWith("-cds.jar"));
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getAbsolutePath());
+        if ("cds".equals(this.mode)) {
+            String startClass;
+            try (JarFile jarFile = new JarFile(jar)) {
+                startClass = jarFile.getManifest().getMainAttributes().getValue("Start-Class");
+            }
+            File cdsJar = this.find(target, name -> name.endsWith("-cds.jar"));
+            command.add("-XX:SharedArchiveFile=" + new File(target, "cds/app.jsa").getAbsolutePath());
+            command.addAll(Arrays.asList(this.jvmArgs));
+            command.add("-cp");
+            command.add(cdsJar.getAbsolutePath() + File.pathSeparator + new File(target, "cds/lib").getAbsolutePath() + "/*");
+            command.add(startClass);
+        }
+        else {
+            command.addAll(Arrays.asList(this.jvmArgs));
+            command.add("-jar");
+            command.add(jar.getAbsolutePath());
+        }
+        return command;
+    }
+
+    private File find(File target, java.util.function.Predicate<String> name) {
+        File[] files = target.listFiles((dir, n) -> name.test(n));
+        Assert.state(files != null && files.length > 0, "nothing built in " + target + ", run mvn package first");
+        return files[0];
+    }
+}
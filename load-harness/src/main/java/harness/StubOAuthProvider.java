@@ -0,0 +1,74 @@
+package harness;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// stands in for GitHub and Facebook (see social-auth-service's stub profile)
+@RestController
+@RequestMapping("/stub")
+class StubOAuthProvider {
+
+    private final long latencyMillis;
+
+    @Autowired
+    StubOAuthProvider(@Value("${harness.stub.latency-millis:0}") long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    @RequestMapping("/oauth/authorize")
+    ResponseEntity<Void> authorize(@RequestParam("redirect_uri") String redirectUri,
+                                   @RequestParam(value = "state", required = false) String state) {
+        UriComponentsBuilder location = UriComponentsBuilder.fromHttpUrl(redirectUri)
+                .queryParam("code", UUID.randomUUID().toString());
+        if (state != null) {
+            location.queryParam("state", state);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(location.build().toUri());
+        return new ResponseEntity<>(headers, HttpStatus.FOUND);
+    }
+
+    @RequestMapping("/oauth/access_token")
+    Map<String, Object> accessToken() throws InterruptedException {
+        this.simulateLatency();
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("access_token", "stub-" + UUID.randomUUID());
+        token.put("token_type", "bearer");
+        token.put("expires_in", 3600);
+        return token;
+    }
+
+    @RequestMapping("/me")
+    Map<String, Object> me(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                           @RequestParam(value = "oauth_token", required = false) String oauthToken,
+                           @RequestParam(value = "access_token", required = false) String accessToken)
+            throws InterruptedException {
+        this.simulateLatency();
+        String token = authorization != null ? authorization.substring(authorization.indexOf(' ') + 1)
+                : oauthToken != null ? oauthToken : accessToken;
+        String login = "user-" + Integer.toHexString(String.valueOf(token).hashCode());
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", login);
+        user.put("login", login);
+        user.put("name", login);
+        return user;
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        if (this.latencyMillis > 0) {
+            Thread.sleep(this.latencyMillis);
+        }
+    }
+}
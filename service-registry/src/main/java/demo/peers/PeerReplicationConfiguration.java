@@ -0,0 +1,34 @@
+package demo.peers;
+
+import metrics.Counters;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * Keeps a node responsive when writes pile up faster than it, and the peers it
+ * replicates to, can take them. Only for peers, which run with the {@code peer} profile,
+ * a standalone registry has nobody to replicate to.
+ */
+@Configuration
+@Profile("peer")
+@ConditionalOnProperty(name = "eureka.server.backpressure.enabled", matchIfMissing = true)
+public class PeerReplicationConfiguration {
+
+    // behind the drain and deadline filters, writes nobody waits for anymore never take a permit
+    @Bean
+    FilterRegistrationBean writeBackpressureFilter(ListableBeanFactory beanFactory,
+                                                   @Value("${eureka.server.backpressure.max-concurrent-writes:64}") int maxConcurrentWrites,
+                                                   @Value("${eureka.server.backpressure.queue-timeout-millis:100}") long queueTimeoutMillis) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new WriteBackpressureFilter(maxConcurrentWrites, queueTimeoutMillis, Counters.forBeanFactory(beanFactory)));
+        registration.addUrlPatterns("/eureka/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 15);
+        return registration;
+    }
+}
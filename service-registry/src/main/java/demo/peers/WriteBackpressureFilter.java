@@ -0,0 +1,66 @@
+package demo.peers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Bounds the registrations, heartbeats, cancellations and replication batches a node
+ * works on at once. Writes that can't get a permit within {@code queueTimeoutMillis}
+ * get a 503: Eureka clients retry those on the next node in their list, and peers
+ * treat it as congestion and send the batch again after a backoff.
+ */
+class WriteBackpressureFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+
+    private final long queueTimeoutMillis;
+
+    private final Consumer<String> counters;
+
+    WriteBackpressureFilter(int maxConcurrentWrites, long queueTimeoutMillis, Consumer<String> counters) {
+        this.permits = new Semaphore(maxConcurrentWrites);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.counters = counters;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = this.permits.tryAcquire(this.queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            this.counters.accept("eureka.writes.rejected");
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "too many concurrent writes");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        }
+        finally {
+            this.permits.release();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package demo.snapshots;
+
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import discovery.RegistrySnapshotCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "eureka.server.snapshot.enabled", matchIfMissing = true)
+public class RegistrySnapshotConfiguration {
+
+    @Bean
+    RegistrySnapshots registrySnapshots(PeerAwareInstanceRegistry registry,
+                                        @Value("${eureka.server.snapshot.file}") String file,
+                                        @Value("${eureka.server.snapshot.max-age-seconds:300}") long maxAgeSeconds) {
+        return new RegistrySnapshots(registry, new RegistrySnapshotCodec(), Paths.get(file),
+                TimeUnit.SECONDS.toMillis(maxAgeSeconds));
+    }
+}
@@ -0,0 +1,112 @@
+package demo.snapshots;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import discovery.RegistrySnapshotCodec;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the registry to disk every few seconds and loads it back on startup, so that a
+ * restarted registry serves every instance it knew about right away instead of waiting
+ * for each one's next heartbeat. Restored instances carry {@link #PROVISIONAL_METADATA}
+ * until they renew. Those that never renew expire like any other lease.
+ */
+class RegistrySnapshots {
+
+    static final String PROVISIONAL_METADATA = "provisional";
+
+    private final Log log = LogFactory.getLog(getClass());
+
+    private final PeerAwareInstanceRegistry registry;
+
+    private final RegistrySnapshotCodec codec;
+
+    private final Path file;
+
+    private final long maxAgeMillis;
+
+    private volatile boolean restored;
+
+    RegistrySnapshots(PeerAwareInstanceRegistry registry, RegistrySnapshotCodec codec, Path file, long maxAgeMillis) {
+        this.registry = registry;
+        this.codec = codec;
+        this.file = file;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @EventListener(EurekaRegistryAvailableEvent.class)
+    public void restore() {
+        try {
+            if (!Files.exists(this.file)) {
+                return;
+            }
+            RegistrySnapshotCodec.Snapshot snapshot = this.codec.read(this.file);
+            long age = System.currentTimeMillis() - snapshot.getTakenAt();
+            if (age > this.maxAgeMillis) {
+                log.info("ignoring registry snapshot " + this.file + ", it's " + age / 1000 + "s old");
+                return;
+            }
+            int count = 0;
+            for (InstanceInfo instance : snapshot.getInstances()) {
+                if (this.registry.getInstanceByAppAndId(instance.getAppName(), instance.getId()) == null) {
+                    instance.getMetadata().put(PROVISIONAL_METADATA, "true");
+                    // a replication, so peers aren't told about what they already know first hand
+                    this.registry.register(instance, true);
+                    count++;
+                }
+            }
+            log.info("restored " + count + " provisional instances from " + this.file + " (" + age + "ms old)");
+        }
+        catch (IOException | RuntimeException e) {
+            log.warn("couldn't restore registry snapshot " + this.file, e);
+        }
+        finally {
+            this.restored = true;
+        }
+    }
+
+    @EventListener
+    public void confirm(EurekaInstanceRenewedEvent event) {
+        InstanceInfo instance = this.registry.getInstanceByAppAndId(event.getAppName(), event.getServerId());
+        if (instance != null && instance.getMetadata().remove(PROVISIONAL_METADATA) != null) {
+            this.registry.getResponseCache().invalidate(instance.getAppName(), instance.getVIPAddress(),
+                    instance.getSecureVipAddress());
+        }
+    }
+
+    // until the old snapshot is restored, writing one would replace it with an empty registry
+    @Scheduled(fixedDelayString = "${eureka.server.snapshot.interval-millis:5000}")
+    public void snapshot() {
+        if (!this.restored) {
+            return;
+        }
+        List<InstanceInfo> instances = new ArrayList<>();
+        for (Application application : this.registry.getSortedApplications()) {
+            instances.addAll(application.getInstances());
+        }
+        try {
+            this.codec.write(this.file, instances);
+        }
+        catch (IOException e) {
+            log.warn("couldn't write registry snapshot " + this.file, e);
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void snapshotOnShutdown() {
+        this.snapshot();
+    }
+}
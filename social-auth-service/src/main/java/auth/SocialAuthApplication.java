@@ -4,25 +4,19 @@ import auth.accounts.Account;
 import auth.accounts.AccountRepository;
 import auth.clients.Client;
 import auth.clients.ClientRepository;
+import auth.providers.ProviderDispatchFilter;
+import auth.providers.ProviderRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.security.oauth2.resource.ResourceServerProperties;
-import org.springframework.boot.autoconfigure.security.oauth2.resource.UserInfoTokenServices;
-import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.oauth2.client.OAuth2ClientContext;
-import org.springframework.security.oauth2.client.OAuth2RestTemplate;
-import org.springframework.security.oauth2.client.filter.OAuth2ClientAuthenticationProcessingFilter;
 import org.springframework.security.oauth2.client.filter.OAuth2ClientContextFilter;
-import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeResourceDetails;
 import org.springframework.security.oauth2.config.annotation.configurers.ClientDetailsServiceConfigurer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.*;
 import org.springframework.security.oauth2.config.annotation.web.configurers.AuthorizationServerEndpointsConfigurer;
@@ -34,13 +28,9 @@ import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.filter.CompositeFilter;
 
-import javax.servlet.Filter;
 import java.security.Principal;
-import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -85,14 +75,14 @@ class ResourceServerConfiguration extends ResourceServerConfigurerAdapter {
 class AuthorizationServerConfiguration extends WebSecurityConfigurerAdapter
         implements AuthorizationServerConfigurer {
 
-    private final OAuth2ClientContext oauth2ClientContext;
+    private final ProviderRegistry providerRegistry;
     private final ClientDetailsService clientDetailsService;
 
     @Autowired
-    public AuthorizationServerConfiguration(OAuth2ClientContext oauth2ClientContext,
+    public AuthorizationServerConfiguration(ProviderRegistry providerRegistry,
                 ClientDetailsService clientDetailsService) {
         super();
-        this.oauth2ClientContext = oauth2ClientContext;
+        this.providerRegistry = providerRegistry;
         this.clientDetailsService = clientDetailsService;
     }
 
@@ -109,7 +99,7 @@ class AuthorizationServerConfiguration extends WebSecurityConfigurerAdapter
                 .authenticationEntryPoint(new LoginUrlAuthenticationEntryPoint("/")).and().logout()
                 .logoutSuccessUrl("/").permitAll().and().csrf()
                 .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse()).and()
-                .addFilterBefore(ssoFilter(), BasicAuthenticationFilter.class);
+                .addFilterBefore(new ProviderDispatchFilter(this.providerRegistry), BasicAuthenticationFilter.class);
         // @formatter:on
     }
 
@@ -121,39 +111,6 @@ class AuthorizationServerConfiguration extends WebSecurityConfigurerAdapter
         return registration;
     }
 
-    @Bean
-    @ConfigurationProperties("github")
-    ClientResources github() {
-        return new ClientResources();
-    }
-
-    @Bean
-    @ConfigurationProperties("facebook")
-    ClientResources facebook() {
-        return new ClientResources();
-    }
-
-    private Filter ssoFilter() {
-        CompositeFilter filter = new CompositeFilter();
-        List<Filter> filters = Arrays.asList(
-                ssoFilter(facebook(), "/login/facebook"),
-                ssoFilter(github(), "/login/github"));
-        filter.setFilters(filters);
-        return filter;
-    }
-
-    private Filter ssoFilter(ClientResources client, String path) {
-
-        OAuth2ClientAuthenticationProcessingFilter filter =
-                new OAuth2ClientAuthenticationProcessingFilter(path);
-
-        OAuth2RestTemplate template = new OAuth2RestTemplate(client.getClient(), oauth2ClientContext);
-        filter.setRestTemplate(template);
-        filter.setTokenServices(new UserInfoTokenServices(
-                client.getResource().getUserInfoUri(), client.getClient().getClientId()));
-        return filter;
-    }
-
     @Override
     public void configure(AuthorizationServerSecurityConfigurer security) throws Exception {
     }
@@ -190,22 +147,3 @@ class DataCommandLineRunner implements CommandLineRunner {
                 .forEach(x -> clientRepository.save(new Client(x[0], x[1])));
     }
 }
-
-
-class ClientResources {
-
-    @NestedConfigurationProperty
-    private AuthorizationCodeResourceDetails client = new AuthorizationCodeResourceDetails();
-
-    @NestedConfigurationProperty
-    private ResourceServerProperties resource = new ResourceServerProperties();
-
-    public AuthorizationCodeResourceDetails getClient() {
-        return client;
-    }
-
-    public ResourceServerProperties getResource() {
-        return resource;
-    }
-}
-
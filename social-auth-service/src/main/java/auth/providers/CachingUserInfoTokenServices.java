@@ -0,0 +1,45 @@
+package auth.providers;
+
+import com.google.common.cache.Cache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.ExecutionException;
+
+// a provider token always resolves to the same user, so only the first lookup goes to the userInfoUri
+class CachingUserInfoTokenServices implements ResourceServerTokenServices {
+
+    private final String provider;
+
+    private final ResourceServerTokenServices delegate;
+
+    private final Cache<String, OAuth2Authentication> cache;
+
+    CachingUserInfoTokenServices(String provider, ResourceServerTokenServices delegate,
+                                 Cache<String, OAuth2Authentication> cache) {
+        this.provider = provider;
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public OAuth2Authentication loadAuthentication(String accessToken) throws AuthenticationException, InvalidTokenException {
+        try {
+            return this.cache.get(this.provider + ':' + accessToken, () -> this.delegate.loadAuthentication(accessToken));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            ReflectionUtils.rethrowRuntimeException(e.getCause());
+            return null;
+        }
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String accessToken) {
+        return this.delegate.readAccessToken(accessToken);
+    }
+}
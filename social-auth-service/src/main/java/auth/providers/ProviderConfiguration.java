@@ -0,0 +1,71 @@
+package auth.providers;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ProviderConfiguration {
+
+    @Bean
+    @ConfigurationProperties("github")
+    ClientResources github() {
+        return new ClientResources();
+    }
+
+    @Bean
+    @ConfigurationProperties("facebook")
+    ClientResources facebook() {
+        return new ClientResources();
+    }
+
+    @Bean
+    @ConfigurationProperties("social")
+    ProviderProperties providerProperties() {
+        return new ProviderProperties();
+    }
+
+    // one pool for the token and user info calls to every provider
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient providerHttpClient(ProviderProperties properties) {
+        ProviderProperties.Http http = properties.getHttp();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(http.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(http.getMaxConnectionsPerRoute());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(http.getConnectTimeoutMillis())
+                .setConnectionRequestTimeout(http.getConnectTimeoutMillis())
+                .setSocketTimeout(http.getReadTimeoutMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+    }
+
+    @Bean
+    ProviderRegistry providerRegistry(Map<String, ClientResources> providers,
+                                      OAuth2ClientContext oauth2ClientContext,
+                                      CloseableHttpClient providerHttpClient,
+                                      ProviderProperties properties) {
+        ProviderProperties.UserInfoCache cache = properties.getUserInfoCache();
+        Cache<String, OAuth2Authentication> userInfoCache = CacheBuilder.newBuilder()
+                .maximumSize(cache.getMaximumSize())
+                .expireAfterWrite(cache.getExpireAfterWriteSeconds(), TimeUnit.SECONDS)
+                .build();
+        return new ProviderRegistry(providers, oauth2ClientContext,
+                new HttpComponentsClientHttpRequestFactory(providerHttpClient), userInfoCache);
+    }
+}
@@ -0,0 +1,37 @@
+package auth.providers;
+
+import org.springframework.web.filter.GenericFilterBean;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+// hands the request to the one provider filter registered for its path instead of trying each in turn
+public class ProviderDispatchFilter extends GenericFilterBean {
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final ProviderRegistry registry;
+
+    public ProviderDispatchFilter(ProviderRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String path = this.urlPathHelper.getPathWithinApplication(HttpServletRequest.class.cast(request));
+        Filter filter = this.registry.getFilter(path);
+        if (filter == null) {
+            chain.doFilter(request, response);
+        }
+        else {
+            filter.doFilter(request, response, chain);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package auth.providers;
+
+public class ProviderProperties {
+
+    private final Http http = new Http();
+
+    private final UserInfoCache userInfoCache = new UserInfoCache();
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public UserInfoCache getUserInfoCache() {
+        return userInfoCache;
+    }
+
+    public static class Http {
+
+        private int connectTimeoutMillis = 2000;
+
+        private int readTimeoutMillis = 5000;
+
+        private int maxConnections = 200;
+
+        private int maxConnectionsPerRoute = 50;
+
+        public int getConnectTimeoutMillis() {
+            return connectTimeoutMillis;
+        }
+
+        public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+            this.connectTimeoutMillis = connectTimeoutMillis;
+        }
+
+        public int getReadTimeoutMillis() {
+            return readTimeoutMillis;
+        }
+
+        public void setReadTimeoutMillis(int readTimeoutMillis) {
+            this.readTimeoutMillis = readTimeoutMillis;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+    }
+
+    public static class UserInfoCache {
+
+        private long maximumSize = 10_000;
+
+        private long expireAfterWriteSeconds = 300;
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getExpireAfterWriteSeconds() {
+            return expireAfterWriteSeconds;
+        }
+
+        public void setExpireAfterWriteSeconds(long expireAfterWriteSeconds) {
+            this.expireAfterWriteSeconds = expireAfterWriteSeconds;
+        }
+    }
+}
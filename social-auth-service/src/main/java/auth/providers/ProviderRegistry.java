@@ -0,0 +1,61 @@
+package auth.providers;
+
+import com.google.common.cache.Cache;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.UserInfoTokenServices;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.OAuth2ClientContext;
+import org.springframework.security.oauth2.client.OAuth2RestTemplate;
+import org.springframework.security.oauth2.client.filter.OAuth2ClientAuthenticationProcessingFilter;
+import org.springframework.security.oauth2.client.token.grant.code.AuthorizationCodeAccessTokenProvider;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import javax.servlet.Filter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One login filter per configured {@link ClientResources provider}, looked up by its
+ * {@code /login/<provider>} path.
+ */
+public class ProviderRegistry {
+
+    private final Map<String, Filter> filters;
+
+    public ProviderRegistry(Map<String, ClientResources> providers, OAuth2ClientContext clientContext,
+                            ClientHttpRequestFactory requestFactory, Cache<String, OAuth2Authentication> userInfoCache) {
+        Map<String, Filter> filters = new HashMap<>();
+        providers.forEach((name, client) -> filters.put("/login/" + name,
+                this.ssoFilter(name, client, "/login/" + name, clientContext, requestFactory, userInfoCache)));
+        this.filters = Collections.unmodifiableMap(filters);
+    }
+
+    public Filter getFilter(String path) {
+        return this.filters.get(path);
+    }
+
+    public Map<String, Filter> getFilters() {
+        return this.filters;
+    }
+
+    private Filter ssoFilter(String name, ClientResources client, String path, OAuth2ClientContext clientContext,
+                             ClientHttpRequestFactory requestFactory, Cache<String, OAuth2Authentication> userInfoCache) {
+
+        OAuth2ClientAuthenticationProcessingFilter filter =
+                new OAuth2ClientAuthenticationProcessingFilter(path);
+
+        AuthorizationCodeAccessTokenProvider accessTokenProvider = new AuthorizationCodeAccessTokenProvider();
+        accessTokenProvider.setRequestFactory(requestFactory);
+
+        OAuth2RestTemplate template = new OAuth2RestTemplate(client.getClient(), clientContext);
+        template.setRequestFactory(requestFactory);
+        template.setAccessTokenProvider(accessTokenProvider);
+        filter.setRestTemplate(template);
+
+        UserInfoTokenServices tokenServices = new UserInfoTokenServices(
+                client.getResource().getUserInfoUri(), client.getClient().getClientId());
+        tokenServices.setRestTemplate(template);
+        filter.setTokenServices(new CachingUserInfoTokenServices(name, tokenServices, userInfoCache));
+        return filter;
+    }
+}